@@ -0,0 +1,56 @@
+package it.lockless.psidemoclient.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Deterministic datasets shared by the benchmarks. The client and server datasets share the entries with
+ * index multiple of 10, thus the intersection contains 10% of the entries.
+ */
+final class BenchmarkDatasets {
+
+    private BenchmarkDatasets() {
+    }
+
+    static String clientEntry(int i) {
+        return i % 10 == 0 ? "COMMON-" + i : "CLIENT-" + i;
+    }
+
+    static String serverEntry(int i) {
+        return i % 10 == 0 ? "COMMON-" + i : "SERVER-" + i;
+    }
+
+    static Set<String> clientDataset(int entries) {
+        Set<String> dataset = new HashSet<>();
+        for(int i = 0; i < entries; i++)
+            dataset.add(clientEntry(i));
+        return dataset;
+    }
+
+    static Set<String> serverDataset(int entries) {
+        Set<String> dataset = new HashSet<>();
+        for(int i = 0; i < entries; i++)
+            dataset.add(serverEntry(i));
+        return dataset;
+    }
+
+    /**
+     * Writes the client dataset in a temporary file, which is deleted on exit.
+     */
+    static File clientDatasetFile(int entries) throws IOException {
+        File file = File.createTempFile("benchmark-dataset", ".txt");
+        file.deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for(int i = 0; i < entries; i++) {
+                writer.write(clientEntry(i));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+}
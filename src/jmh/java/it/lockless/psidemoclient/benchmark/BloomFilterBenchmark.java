@@ -0,0 +1,88 @@
+package it.lockless.psidemoclient.benchmark;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import it.lockless.psidemoclient.util.BloomFilterHelper;
+import it.lockless.psidemoclient.util.MappedBloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Filtering of the client dataset with the Bloom Filter of the server dataset (BloomFilterHelper.retainMightContain),
+ * with the deserialized Guava BloomFilter and with the MappedBloomFilter querying the serialized bytes.
+ * Deserialization compares the cost of BloomFilterHelper.getBloomFilterFromByteArray with MappedBloomFilter.wrap.
+ */
+@SuppressWarnings("UnstableApiUsage")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BloomFilterBenchmark {
+
+    @Param({"1000000"})
+    public int entries;
+
+    @Param({"GUAVA", "MAPPED"})
+    public String bloomFilterType;
+
+    private Set<String> clientDataset;
+
+    private byte[] serializedBloomFilter;
+
+    private Predicate<? super String> bloomFilter;
+
+    // Copy of the client dataset filtered by each invocation, since retainMightContain modifies its input
+    private Set<String> datasetToFilter;
+
+    @Setup
+    public void setup() throws IOException {
+        clientDataset = BenchmarkDatasets.clientDataset(entries);
+        BloomFilter<CharSequence> serverBloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), entries, 0.01);
+        BenchmarkDatasets.serverDataset(entries).forEach(serverBloomFilter::put);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serverBloomFilter.writeTo(outputStream);
+        serializedBloomFilter = outputStream.toByteArray();
+        bloomFilter = "GUAVA".equals(bloomFilterType) ?
+                BloomFilterHelper.getBloomFilterFromByteArray(serializedBloomFilter)
+                : MappedBloomFilter.wrap(ByteBuffer.wrap(serializedBloomFilter));
+    }
+
+    @Setup(Level.Invocation)
+    public void copyDataset() {
+        datasetToFilter = new HashSet<>(clientDataset);
+    }
+
+    @Benchmark
+    public Set<String> retainMightContain() {
+        BloomFilterHelper.retainMightContain(datasetToFilter, bloomFilter);
+        return datasetToFilter;
+    }
+
+    @Benchmark
+    public Predicate<? super String> deserialize() {
+        return "GUAVA".equals(bloomFilterType) ?
+                BloomFilterHelper.getBloomFilterFromByteArray(serializedBloomFilter)
+                : MappedBloomFilter.wrap(ByteBuffer.wrap(serializedBloomFilter));
+    }
+}
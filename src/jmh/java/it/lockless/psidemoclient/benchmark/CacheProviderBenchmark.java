@@ -0,0 +1,123 @@
+package it.lockless.psidemoclient.benchmark;
+
+import it.lockless.psidemoclient.cache.BatchingRedisPsiCacheProvider;
+import it.lockless.psidemoclient.cache.CacheCodec;
+import it.lockless.psidemoclient.cache.LocalPsiCacheProvider;
+import it.lockless.psidemoclient.cache.NearCachePsiCacheProvider;
+import it.lockless.psidemoclient.cache.RedisPsiCacheProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import psi.cache.PsiCacheProvider;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single get (hit and miss) and put operations of the cache providers. LOCAL is the LocalPsiCacheProvider on a
+ * temporary file, NEAR is an in-memory near cache in front of it. REDIS (RedisPsiCacheProvider) and BATCHING_REDIS
+ * (BatchingRedisPsiCacheProvider with --cacheBatchSize 100) require a Redis server listening on redisHost:redisPort
+ * and are not run by default (add -p cacheType=REDIS,BATCHING_REDIS). Since the psi-sdk calls the cache from many
+ * threads, the Redis providers should also be compared with -t 4 or more.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CacheProviderBenchmark {
+
+    private static final int PRELOADED_KEYS = 100_000;
+
+    @Param({"LOCAL", "NEAR"})
+    public String cacheType;
+
+    @Param({"localhost"})
+    public String redisHost;
+
+    @Param({"6379"})
+    public int redisPort;
+
+    private PsiCacheProvider psiCacheProvider;
+
+    private Closeable closeable;
+
+    private File cacheFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        switch(cacheType) {
+            case "LOCAL":
+            case "NEAR":
+                cacheFile = File.createTempFile("benchmark-cache", ".bin");
+                if(!cacheFile.delete())
+                    throw new IOException("Cannot delete the temporary file " + cacheFile);
+                LocalPsiCacheProvider localPsiCacheProvider = new LocalPsiCacheProvider(cacheFile);
+                closeable = localPsiCacheProvider;
+                psiCacheProvider = "LOCAL".equals(cacheType) ? localPsiCacheProvider
+                        : new NearCachePsiCacheProvider(NearCachePsiCacheProvider.newNearCache(64L * 1024 * 1024, 3600), localPsiCacheProvider);
+                break;
+            case "REDIS":
+                RedisPsiCacheProvider redisPsiCacheProvider = new RedisPsiCacheProvider(redisHost, redisPort);
+                closeable = redisPsiCacheProvider;
+                psiCacheProvider = redisPsiCacheProvider;
+                break;
+            case "BATCHING_REDIS":
+                BatchingRedisPsiCacheProvider batchingRedisPsiCacheProvider = new BatchingRedisPsiCacheProvider(redisHost, redisPort, 100, 5, CacheCodec.PLAIN, 0);
+                closeable = batchingRedisPsiCacheProvider;
+                psiCacheProvider = batchingRedisPsiCacheProvider;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown cache type " + cacheType);
+        }
+        for(int i = 0; i < PRELOADED_KEYS; i++)
+            psiCacheProvider.put(key(i), value(i));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if(closeable != null)
+            closeable.close();
+        if(cacheFile != null)
+            cacheFile.delete();
+    }
+
+    private static String key(long i) {
+        return "benchmark-key-" + i;
+    }
+
+    private static String value(long i) {
+        return "benchmark-value-" + i;
+    }
+
+    @Benchmark
+    public Optional<String> getHit() {
+        return psiCacheProvider.get(key(ThreadLocalRandom.current().nextInt(PRELOADED_KEYS)));
+    }
+
+    @Benchmark
+    public Optional<String> getMiss() {
+        return psiCacheProvider.get(key(-1 - ThreadLocalRandom.current().nextInt(PRELOADED_KEYS)));
+    }
+
+    @Benchmark
+    public void put() {
+        long i = PRELOADED_KEYS + ThreadLocalRandom.current().nextLong(Long.MAX_VALUE - PRELOADED_KEYS);
+        psiCacheProvider.put(key(i), value(i));
+    }
+}
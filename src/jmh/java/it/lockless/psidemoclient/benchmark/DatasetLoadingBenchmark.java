@@ -0,0 +1,59 @@
+package it.lockless.psidemoclient.benchmark;
+
+import it.lockless.psidemoclient.PsiClientCLI;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of the client dataset file by PsiClientCLI (loadDatasetFromFile), with the sequential BufferedReader
+ * loader (datasetReaderThreads = 0) and with the memory-mapped parallel reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DatasetLoadingBenchmark {
+
+    @Param({"1000000"})
+    public int entries;
+
+    @Param({"0", "1", "4"})
+    public int datasetReaderThreads;
+
+    private File datasetFile;
+
+    @Setup
+    public void setup() throws Exception {
+        datasetFile = BenchmarkDatasets.clientDatasetFile(entries);
+    }
+
+    @Benchmark
+    public Set<String> loadDatasetFromFile() throws Exception {
+        PsiClientCLI psiClientCLI = new PsiClientCLI();
+        FieldUtils.writeField(psiClientCLI, "inputDataset", datasetFile, true);
+        FieldUtils.writeField(psiClientCLI, "charset", StandardCharsets.UTF_8, true);
+        FieldUtils.writeField(psiClientCLI, "datasetReaderThreads", datasetReaderThreads, true);
+        MethodUtils.invokeMethod(psiClientCLI, true, "loadDatasetFromFile");
+        @SuppressWarnings("unchecked")
+        Set<String> clientDataset = (Set<String>) FieldUtils.readField(psiClientCLI, "clientDataset", true);
+        return clientDataset;
+    }
+}
@@ -0,0 +1,118 @@
+package it.lockless.psidemoclient.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.lockless.psidemoclient.client.PsiServerDatasetPageStreamReader;
+import it.lockless.psidemoclient.client.WireFormat;
+import it.lockless.psidemoclient.dto.PsiDatasetMapDTO;
+import it.lockless.psidemoclient.dto.PsiServerDatasetPageDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialization of the bodies exchanged with the server, in each WireFormat: the encrypted client dataset
+ * (PsiDatasetMapDTO) and a page of the encrypted server dataset (PsiServerDatasetPageDTO). The page is also parsed
+ * by the PsiServerDatasetPageStreamReader used by the streaming download.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    @Param({"10000"})
+    public int entries;
+
+    @Param({"JSON", "SMILE"})
+    public WireFormat wireFormat;
+
+    private ObjectMapper objectMapper;
+
+    private PsiDatasetMapDTO psiDatasetMapDTO;
+
+    private PsiServerDatasetPageDTO psiServerDatasetPageDTO;
+
+    private byte[] serializedPsiDatasetMapDTO;
+
+    private byte[] serializedPsiServerDatasetPageDTO;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper(wireFormat.getJsonFactory());
+
+        // Encrypted entries have the length of a hex-encoded 2048 bits value, as in the BS and DH algorithms
+        Map<Long, String> content = new HashMap<>();
+        Set<String> pageContent = new HashSet<>();
+        for(long i = 0; i < entries; i++) {
+            content.put(i, encryptedEntry("c" + i));
+            pageContent.add(encryptedEntry("s" + i));
+        }
+        psiDatasetMapDTO = new PsiDatasetMapDTO(content);
+        psiServerDatasetPageDTO = new PsiServerDatasetPageDTO();
+        psiServerDatasetPageDTO.setPage(0);
+        psiServerDatasetPageDTO.setSize(entries);
+        psiServerDatasetPageDTO.setEntries(entries);
+        psiServerDatasetPageDTO.setTotalPages(1);
+        psiServerDatasetPageDTO.setTotalEntries(entries);
+        psiServerDatasetPageDTO.setLast(true);
+        psiServerDatasetPageDTO.setContent(pageContent);
+
+        serializedPsiDatasetMapDTO = objectMapper.writeValueAsBytes(psiDatasetMapDTO);
+        serializedPsiServerDatasetPageDTO = objectMapper.writeValueAsBytes(psiServerDatasetPageDTO);
+    }
+
+    private static String encryptedEntry(String seed) {
+        StringBuilder stringBuilder = new StringBuilder(512);
+        int hash = seed.hashCode();
+        while(stringBuilder.length() < 512) {
+            hash = hash * 31 + 17;
+            stringBuilder.append(Integer.toHexString(hash));
+        }
+        return stringBuilder.substring(0, 512);
+    }
+
+    @Benchmark
+    public byte[] serializePsiDatasetMap() throws IOException {
+        return objectMapper.writeValueAsBytes(psiDatasetMapDTO);
+    }
+
+    @Benchmark
+    public PsiDatasetMapDTO deserializePsiDatasetMap() throws IOException {
+        return objectMapper.readValue(serializedPsiDatasetMapDTO, PsiDatasetMapDTO.class);
+    }
+
+    @Benchmark
+    public byte[] serializePsiServerDatasetPage() throws IOException {
+        return objectMapper.writeValueAsBytes(psiServerDatasetPageDTO);
+    }
+
+    @Benchmark
+    public PsiServerDatasetPageDTO deserializePsiServerDatasetPage() throws IOException {
+        return objectMapper.readValue(serializedPsiServerDatasetPageDTO, PsiServerDatasetPageDTO.class);
+    }
+
+    @Benchmark
+    public PsiServerDatasetPageDTO streamPsiServerDatasetPage(Blackhole blackhole) throws IOException {
+        PsiServerDatasetPageStreamReader streamReader = new PsiServerDatasetPageStreamReader(wireFormat.getJsonFactory(), 1000);
+        return streamReader.read(new ByteArrayInputStream(serializedPsiServerDatasetPageDTO), blackhole::consume);
+    }
+}
@@ -0,0 +1,81 @@
+package it.lockless.psidemoclient.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import psi.PsiClientFactory;
+import psi.PsiServerFactory;
+import psi.client.PsiClient;
+import psi.exception.UnsupportedKeySizeException;
+import psi.model.PsiAlgorithm;
+import psi.model.PsiAlgorithmParameter;
+import psi.model.PsiClientSession;
+import psi.model.PsiServerSession;
+import psi.server.PsiServer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete PSI computation with both the client and the server running in the JVM, without HTTP calls, for each
+ * algorithm and key size. The session is created in the setup, thus each invocation measures the client and server
+ * encryptions and the intersection, without caching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EndToEndPsiBenchmark {
+
+    @Param({"1000"})
+    public int entries;
+
+    // Algorithm and key size separated by "-"
+    @Param({"BS-2048", "BS-4096", "DH-2048", "DH-4096", "ECBS-256", "ECBS-512", "ECDH-256", "ECDH-512"})
+    public String algorithmKeySize;
+
+    private PsiServerSession psiServerSession;
+
+    private PsiClientSession psiClientSession;
+
+    private Set<String> clientDataset;
+
+    private Set<String> serverDataset;
+
+    @Setup
+    public void setup() throws UnsupportedKeySizeException {
+        String[] splitAlgorithmKeySize = algorithmKeySize.split("-");
+        PsiAlgorithmParameter psiAlgorithmParameter = new PsiAlgorithmParameter();
+        psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.valueOf(splitAlgorithmKeySize[0]));
+        psiAlgorithmParameter.setKeySize(Integer.parseInt(splitAlgorithmKeySize[1]));
+        psiServerSession = PsiServerFactory.initSession(psiAlgorithmParameter);
+        psiClientSession = PsiClientSession.getFromServerSession(psiServerSession);
+        clientDataset = BenchmarkDatasets.clientDataset(entries);
+        serverDataset = BenchmarkDatasets.serverDataset(entries);
+    }
+
+    @Benchmark
+    public Set<String> computePsi() throws UnsupportedKeySizeException {
+        PsiClient psiClient = PsiClientFactory.loadSession(psiClientSession);
+        PsiServer psiServer = PsiServerFactory.loadSession(psiServerSession);
+
+        Map<Long, String> encryptedClientDataset = psiClient.loadAndEncryptClientDataset(clientDataset);
+        psiClient.loadDoubleEncryptedClientDataset(psiServer.encryptDatasetMap(encryptedClientDataset));
+        psiClient.loadAndProcessServerDataset(psiServer.encryptDataset(serverDataset));
+        Set<String> psiResult = psiClient.computePsi();
+        if(psiResult.size() != (entries + 9) / 10)
+            throw new IllegalStateException("Unexpected PSI result size " + psiResult.size());
+        return psiResult;
+    }
+}
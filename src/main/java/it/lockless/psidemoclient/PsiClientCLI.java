@@ -1,11 +1,41 @@
 package it.lockless.psidemoclient;
-import com.google.common.hash.BloomFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.lockless.psidemoclient.batch.BatchJob;
+import it.lockless.psidemoclient.batch.BatchJobResult;
+import it.lockless.psidemoclient.batch.BatchManifest;
+import it.lockless.psidemoclient.batch.PsiBatchRunner;
+import it.lockless.psidemoclient.cache.BatchingRedisPsiCacheProvider;
+import it.lockless.psidemoclient.cache.CacheCodec;
+import it.lockless.psidemoclient.cache.CacheType;
+import it.lockless.psidemoclient.cache.CompactCacheCodec;
+import it.lockless.psidemoclient.cache.LocalPsiCacheProvider;
+import it.lockless.psidemoclient.cache.MeteredPsiCacheProvider;
+import it.lockless.psidemoclient.cache.NearCachePsiCacheProvider;
+import it.lockless.psidemoclient.cache.RedisCacheStatistics;
+import it.lockless.psidemoclient.cache.RedisClusterPsiCacheProvider;
 import it.lockless.psidemoclient.cache.RedisPsiCacheProvider;
+import it.lockless.psidemoclient.cache.ShardedPsiCacheProvider;
+import it.lockless.psidemoclient.client.HttpTransportFactory;
+import it.lockless.psidemoclient.client.PageSizeController;
+import it.lockless.psidemoclient.client.PsiClientSetUploader;
+import it.lockless.psidemoclient.client.PsiClientSetWarmer;
 import it.lockless.psidemoclient.client.PsiServerApi;
+import it.lockless.psidemoclient.client.PsiServerSetPageFetcher;
+import it.lockless.psidemoclient.client.WireFormat;
+import it.lockless.psidemoclient.daemon.PsiDaemon;
 import it.lockless.psidemoclient.dto.*;
-import it.lockless.psidemoclient.util.BloomFilterHelper;
+import it.lockless.psidemoclient.metrics.MetricsFormat;
+import it.lockless.psidemoclient.metrics.PsiMetrics;
+import it.lockless.psidemoclient.util.BloomFilterStore;
+import it.lockless.psidemoclient.util.IoExecutors;
+import it.lockless.psidemoclient.util.MappedBloomFilter;
+import it.lockless.psidemoclient.util.MappedDatasetReader;
 import it.lockless.psidemoclient.util.PsiClientKeyDescriptionYaml;
 import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+import it.lockless.psidemoclient.util.StreamingDatasetReader;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
@@ -13,6 +43,7 @@ import org.yaml.snakeyaml.nodes.Tag;
 import picocli.CommandLine;
 import picocli.CommandLine.*;
 import psi.PsiClientFactory;
+import psi.cache.PsiCacheProvider;
 import psi.client.PsiClient;
 import psi.PsiClientKeyDescription;
 import psi.PsiClientKeyDescriptionFactory;
@@ -21,16 +52,33 @@ import psi.exception.UnsupportedKeySizeException;
 import psi.model.PsiAlgorithm;
 import psi.model.PsiAlgorithmParameter;
 import psi.model.PsiPhaseStatistics;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
 
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /*
 Command to create an executable JAR:
@@ -43,18 +91,27 @@ java -jar psi-demo-client-1.0-jar-with-dependencies.jar [arguments]
 @Command(name = "psiClientCLI", mixinStandardHelpOptions = true, version = "psiClientCLI 1.0", description = "Demo implementation of a PSI client using the psi-sdk.")
 public class PsiClientCLI implements Runnable{
 
+    private static final int WARMUP_DEFAULT_CHUNK_SIZE = 10000;
+
     private Set<String> clientDataset;
 
-    @CommandLine.Parameters(description = "Should either be list or compute.")
+    // Filter (e.g., the Bloom Filter of the server) applied to the client dataset while it is read from the file
+    private Predicate<CharSequence> clientDatasetFilter;
+
+    // Remote cache providers shared by the jobs of the daemon and batch commands, see acquireRemoteCacheProvider.
+    // Null if each execution opens its own cache provider
+    private ConcurrentMap<String, PsiCacheProvider> sharedCacheProviders;
+
+    @CommandLine.Parameters(description = "Should either be list, compute, warmup, daemon, batch or cacheStats.")
     private String command;
 
     @Spec
     private Model.CommandSpec spec;
 
-    @Option(names = { "-url", "--serverUrl" }, paramLabel = "URL", required = true, description = "URL of the server offering the PSI server API")
+    @Option(names = { "-url", "--serverUrl" }, paramLabel = "URL", description = "URL of the server offering the PSI server API. Required if command is list, compute or warmup")
     private String serverBaseUrl;
 
-    @Option(names = { "-i", "--inputDataset" }, paramLabel = "FILE", description = "File containing the client dataset. Each line of the file is interpreted as an entry of the dataset. Required if command is compute")
+    @Option(names = { "-i", "--inputDataset" }, paramLabel = "FILE", description = "File containing the client dataset. Each line of the file is interpreted as an entry of the dataset. Required if command is compute or warmup")
     private File inputDataset;
 
     @Option(names = { "-o", "--output" }, paramLabel = "FILE", defaultValue = "out.txt", description = "Output file containing the result of the PSI")
@@ -72,18 +129,129 @@ public class PsiClientCLI implements Runnable{
     @Option(names = { "-outkey", "--outputKeyDescription" }, paramLabel = "FILE", defaultValue = "key.yaml", description = "Output file on which the key description used by the algorithm is printed at the end of the execution")
     private File outputKeyDescriptionFile;
 
-    @Option(names = { "-c", "--cache" }, paramLabel = "Boolean", description = "Defines whether the client-side PSI calculation should use the Redis cache. If not modified with --cacheUrl and --cachePort, attempts to connect to Redis on localhost:6379")
+    @Option(names = { "-c", "--cache" }, paramLabel = "Boolean", description = "Defines whether the client-side PSI calculation should use a cache (see --cacheType). If not modified with --cacheType, --cacheUrl and --cachePort, attempts to connect to Redis on localhost:6379")
     private boolean cache;
 
+    @Option(names = { "-ct", "--cacheType" }, paramLabel = "String", defaultValue = "REDIS", description = "Type of cache used if --cache is set. REDIS uses the Redis server defined by --cacheUrl and --cachePort, LOCAL uses the local file defined by --cachePath. Default value is REDIS")
+    private CacheType cacheType;
+
+    @Option(names = { "-cpath", "--cachePath" }, paramLabel = "FILE", defaultValue = "psi-cache.db", description = "File storing the LOCAL cache. It is created if it does not exist. Default value is psi-cache.db")
+    private File cachePath;
+
     @Option(names = { "-curl", "--cacheUrl" }, paramLabel = "URL", defaultValue = "localhost", description = "Defines the url of the Redis cache. Default value is localhost")
     private String cacheUrl;
 
     @Option(names = { "-cport", "--cachePort" }, paramLabel = "Integer", defaultValue = "6379", description = "Defines the port of the Redis cache. Default value is 6379")
     private Integer cachePort;
 
+    @Option(names = { "-cnodes", "--cacheNodes" }, paramLabel = "String", split = ",", description = "Comma-separated list of host:port of Redis nodes. If set, --cacheUrl and --cachePort are ignored and the Redis cache is sharded across the nodes by consistent hashing, or, with --cacheCluster, the nodes are used to connect to a Redis Cluster")
+    private List<String> cacheNodes;
+
+    @Option(names = { "-ccl", "--cacheCluster" }, paramLabel = "Boolean", description = "If set, the nodes defined by --cacheNodes belong to a Redis Cluster. Not compatible with --cacheBatchSize")
+    private boolean cacheCluster;
+
+    @Option(names = { "-cbs", "--cacheBatchSize" }, paramLabel = "Integer", defaultValue = "0", description = "If greater than 0, the writes towards the Redis cache are buffered and sent in background in SETNX pipelines of at most this size. If set to 0, each write is a separate command. Lookups are always separate commands. Default value is 0")
+    private int cacheBatchSize;
+
+    @Option(names = { "-cfm", "--cacheFlushMillis" }, paramLabel = "Integer", defaultValue = "5", description = "Max milliseconds for which a write towards the Redis cache is buffered when --cacheBatchSize is set. Default value is 5")
+    private long cacheFlushMillis;
+
+    @Option(names = { "-cce", "--compactCacheEncoding" }, paramLabel = "Boolean", description = "If set, the Redis cache stores the keys as fixed-size hashes and the values as raw bytes, in a namespace specific to the algorithm, key size and key description. Entries written with and without this option are not shared")
+    private boolean compactCacheEncoding;
+
+    @Option(names = { "-cttl", "--cacheTtl" }, paramLabel = "Integer", defaultValue = "0", description = "If greater than 0, the entries written on the Redis cache expire after this number of seconds. Default value is 0 (no expiration)")
+    private long cacheTtl;
+
+    @Option(names = { "-ncmb", "--nearCacheMaxMegabytes" }, paramLabel = "Integer", defaultValue = "0", description = "If greater than 0, an in-process near cache of at most this estimated size (in MB) is placed in front of the Redis cache, such that hot keys are served from the heap. Default value is 0")
+    private int nearCacheMaxMegabytes;
+
+    @Option(names = { "-ncttl", "--nearCacheTtl" }, paramLabel = "Integer", defaultValue = "0", description = "If greater than 0, the entries of the near cache expire after this number of seconds since they were written. Default value is 0")
+    private long nearCacheTtl;
+
+    // The near cache is kept across the executions of runCompute in the same process
+    private Cache<String, String> nearCache;
+
     @Option(names = { "-bf", "--bloomFilterMaxAge" }, paramLabel = "Integer", description = "If set, defines the max minutes since the Bloom Filter creation to consider it valid. If the server sends an older Bloom Filter, the Bloom Filter is not applied. If this parameter is not set, the Bloom Filter is not applied")
     private Integer bloomFilterMaxAge;
 
+    @Option(names = { "-bff", "--bloomFilterFile" }, paramLabel = "FILE", description = "If set, the last Bloom Filter received from the server is stored in this file and reused by the following executions, which download a new Bloom Filter only if the server created a newer one. Only used if --bloomFilterMaxAge is set")
+    private File bloomFilterFile;
+
+    @Option(names = { "-sip", "--serverSetInFlightPages" }, paramLabel = "Integer", defaultValue = "4", description = "Max number of pages of the server dataset downloaded in background while processing the current page. If set to 0, pages are downloaded sequentially. Default value is 4")
+    private int serverSetInFlightPages;
+
+    @Option(names = { "-cb", "--concurrentBranches" }, paramLabel = "Boolean", description = "If set, the encryption and upload of the client dataset run concurrently with the download and processing of the server dataset")
+    private boolean concurrentBranches;
+
+    @Option(names = { "-ccs", "--clientSetChunkSize" }, paramLabel = "Integer", defaultValue = "0", description = "If greater than 0, the client dataset is encrypted and sent to the server in chunks of this number of entries. If set to 0, the whole client dataset is sent in a single call. Default value is 0")
+    private int clientSetChunkSize;
+
+    @Option(names = { "-cip", "--clientSetInFlightChunks" }, paramLabel = "Integer", defaultValue = "2", description = "Max number of chunks of the client dataset uploaded concurrently when --clientSetChunkSize is set. Default value is 2")
+    private int clientSetInFlightChunks;
+
+    @Option(names = { "-cs", "--charset" }, paramLabel = "String", defaultValue = "UTF-8", description = "Charset of the input dataset file. Default value is UTF-8")
+    private Charset charset;
+
+    @Option(names = { "-drt", "--datasetReaderThreads" }, paramLabel = "Integer", defaultValue = "0", description = "If greater than 0, the input dataset is memory-mapped and parsed with this number of threads. Only applies if --clientSetChunkSize is not set. Default value is 0")
+    private int datasetReaderThreads;
+
+    @Option(names = { "-ht", "--httpTransport" }, paramLabel = "String", defaultValue = "POOLED", description = "Transport used for the API calls towards the server. SIMPLE opens a new connection for each call, POOLED reuses keep-alive connections. Default value is POOLED")
+    private HttpTransportFactory.HttpTransport httpTransport;
+
+    @Option(names = { "-hmc", "--httpMaxConnections" }, paramLabel = "Integer", defaultValue = "16", description = "Max number of connections kept open towards the server by the POOLED transport. Default value is 16")
+    private int httpMaxConnections;
+
+    @Option(names = { "-nhc", "--noHttpCompression" }, paramLabel = "Boolean", description = "If set, the POOLED transport does not request gzip compressed responses from the server")
+    private boolean noHttpCompression;
+
+    @Option(names = { "-wf", "--wireFormat" }, paramLabel = "String", defaultValue = "JSON", description = "Preferred format of the encrypted datasets exchanged with the server. SMILE is a binary JSON format which reduces the payload size and the parsing time. If the server does not support SMILE, JSON is used. Default value is JSON")
+    private WireFormat wireFormat;
+
+    @Option(names = { "-ssb", "--serverSetStreamingBatchSize" }, paramLabel = "Integer", defaultValue = "0", description = "If greater than 0, the pages of the server dataset are parsed while being downloaded and their entries are processed in batches of this size, without materializing whole pages. Default value is 0")
+    private int serverSetStreamingBatchSize;
+
+    @Option(names = { "-ps", "--pageSize" }, paramLabel = "Integer", defaultValue = "100", description = "Number of entries of the pages of the server dataset. If --minPageSize or --maxPageSize are set, this is the initial page size. Default value is 100")
+    private int serverSetPageSize;
+
+    @Option(names = { "-minps", "--minPageSize" }, paramLabel = "Integer", description = "If set, the page size is adapted based on the observed latency, payload size and heap headroom, and is never lower than this value. If not set, it equals --pageSize")
+    private Integer serverSetMinPageSize;
+
+    @Option(names = { "-maxps", "--maxPageSize" }, paramLabel = "Integer", description = "If set, the page size is adapted based on the observed latency, payload size and heap headroom, and is never greater than this value. If not set, it equals --pageSize")
+    private Integer serverSetMaxPageSize;
+
+    @Option(names = { "-pio", "--platformIoThreads" }, paramLabel = "Boolean", description = "If set, the downloads of the server dataset pages and the uploads of the client dataset chunks run on pools of platform threads. Otherwise, on JDK 21+ they run on virtual threads")
+    private boolean platformIoThreads;
+
+    @Option(names = { "-wt", "--warmupThreads" }, paramLabel = "Integer", defaultValue = "4", description = "Number of chunks of the client dataset encrypted concurrently by the warmup command. The chunks contain --clientSetChunkSize entries, or " + WARMUP_DEFAULT_CHUNK_SIZE + " if it is not set. Default value is 4")
+    private int warmupThreads;
+
+    @Option(names = { "-mf", "--metricsFile" }, paramLabel = "FILE", description = "If set, the metrics of the compute command (durations of its phases, bytes exchanged with the server and latencies of the cache operations) are written to this file at the end of the execution")
+    private File metricsFile;
+
+    @Option(names = { "-mfmt", "--metricsFormat" }, paramLabel = "String", defaultValue = "JSON", description = "Format of the file defined by --metricsFile. JSON or PROMETHEUS (text exposition format). Default value is JSON")
+    private MetricsFormat metricsFormat;
+
+    @Option(names = { "-dhost", "--daemonHost" }, paramLabel = "String", defaultValue = "127.0.0.1", description = "Address on which the daemon command accepts jobs. Since the jobs are not authenticated, it should be a loopback address. Default value is 127.0.0.1")
+    private String daemonHost;
+
+    @Option(names = { "-dport", "--daemonPort" }, paramLabel = "Integer", defaultValue = "8090", description = "Port on which the daemon command accepts jobs. Default value is 8090")
+    private int daemonPort;
+
+    @Option(names = { "-dcon", "--daemonConcurrency" }, paramLabel = "Integer", defaultValue = "2", description = "Max number of jobs run concurrently by the daemon command. Default value is 2")
+    private int daemonConcurrency;
+
+    @Option(names = { "-dqs", "--daemonQueueSize" }, paramLabel = "Integer", defaultValue = "16", description = "Max number of jobs waiting for a free slot in the daemon command. Further jobs are rejected. Default value is 16")
+    private int daemonQueueSize;
+
+    @Option(names = { "-bm", "--batchManifest" }, paramLabel = "FILE", description = "Yaml file listing the jobs (server, input dataset, algorithm, key size and further options) run by the batch command. Required if command is batch")
+    private File batchManifest;
+
+    @Option(names = { "-bcon", "--batchConcurrency" }, paramLabel = "Integer", defaultValue = "4", description = "Max number of jobs run concurrently by the batch command. Default value is 4")
+    private int batchConcurrency;
+
+    @Option(names = { "-bsum", "--batchSummary" }, paramLabel = "FILE", defaultValue = "batch-summary.json", description = "Output file on which the batch command writes the outcome of each job. Default value is batch-summary.json")
+    private File batchSummaryFile;
+
     public static void main(String... args) {
         int exitCode = new CommandLine(new it.lockless.psidemoclient.PsiClientCLI()).execute(args);
         System.exit(exitCode);
@@ -91,8 +259,30 @@ public class PsiClientCLI implements Runnable{
 
     @Override
     public void run() {
+        // cacheStats does not interact with the server
+        if("cacheStats".equals(command)) {
+            runCacheStats();
+            return;
+        }
+        ClientHttpRequestFactory clientHttpRequestFactory = HttpTransportFactory.create(httpTransport, httpMaxConnections, !noHttpCompression);
+        if("batch".equals(command)) {
+            // The arguments of the batch are the base arguments of each job, which can target different servers
+            List<String> batchArgs = new ArrayList<>(spec.commandLine().getParseResult().originalArgs());
+            batchArgs.remove(command);
+            List<BatchJobResult> batchJobResults = runBatch(jobServerBaseUrl -> new PsiServerApi(jobServerBaseUrl, clientHttpRequestFactory, wireFormat), batchArgs);
+            if(batchJobResults.stream().anyMatch(batchJobResult -> !batchJobResult.isSuccessful()))
+                System.exit(1);
+            return;
+        }
         validateServerBaseUrl();
-        PsiServerApi psiServerApi = new PsiServerApi(serverBaseUrl);
+        if("daemon".equals(command)) {
+            // The arguments of the daemon are the base arguments of each job
+            List<String> daemonArgs = new ArrayList<>(spec.commandLine().getParseResult().originalArgs());
+            daemonArgs.remove(command);
+            runDaemon(() -> new PsiServerApi(serverBaseUrl, clientHttpRequestFactory, wireFormat), daemonArgs);
+            return;
+        }
+        PsiServerApi psiServerApi = new PsiServerApi(serverBaseUrl, clientHttpRequestFactory, wireFormat);
 
         switch (command) {
             case "list":
@@ -107,8 +297,12 @@ public class PsiClientCLI implements Runnable{
                     System.exit(1);
                 break;
 
+            case "warmup":
+                runWarmup(psiServerApi);
+                break;
+
             default:
-                throw new CommandLine.ParameterException(spec.commandLine(), "The first parameter should either be list or compute");
+                throw new CommandLine.ParameterException(spec.commandLine(), "The first parameter should either be list, compute, warmup, daemon, batch or cacheStats");
         }
     }
 
@@ -120,48 +314,49 @@ public class PsiClientCLI implements Runnable{
      * @param psiServerApi psiServerApi object which performs the API client towards the server
      * @return ProcessExecutionResult object, which provides some information on the outcome of the execution
      */
+    @SuppressWarnings("UnstableApiUsage")
     public ProcessExecutionResult runCompute(PsiServerApi psiServerApi) {
         System.out.println("PSI Client started. Running algorithm "+algorithm+" with keySize "+keySize);
-        loadDatasetFromFile();
-        PsiAlgorithmParameter psiAlgorithmParameter = new PsiAlgorithmParameter();
-        switch(algorithm){
-            case "BS":
-                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.BS);
-                break;
-            case "DH":
-                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.DH);
-                break;
-            case "ECBS":
-                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.ECBS);
-                break;
-            case "ECDH":
-                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.ECDH);
-                break;
-            default:
-                throw new CommandLine.ParameterException(spec.commandLine(), "The input algorithm parameter is not supported");
-        }
-        psiAlgorithmParameter.setKeySize(keySize);
+        long computeStart = System.nanoTime();
+        PsiMetrics psiMetrics = new PsiMetrics();
+        psiServerApi.setPsiMetrics(psiMetrics);
+        clientDatasetFilter = null;
+        validateInputDataset();
+        PsiAlgorithmParameter psiAlgorithmParameter = createPsiAlgorithmParameter();
 
-        // Create the session by calling POST /psi passing the selected psiAlgorithmParameter as body
-        PsiClientSessionDTO psiClientSessionDTO = psiServerApi.postPsi(new PsiAlgorithmParameterDTO(psiAlgorithmParameter));
+        // In chunked mode, the dataset is streamed from the file while the client set is uploaded.
+        // Otherwise, if the Bloom Filter is not used, the dataset does not depend on the session: it is loaded before
+        // creating the session, such that a dataset that cannot be parsed does not open a session on the server
+        boolean loadDatasetBeforeSession = clientSetChunkSize < 1 && bloomFilterMaxAge == null;
+        if(loadDatasetBeforeSession)
+            psiMetrics.time(PsiMetrics.FILE_LOAD, this::loadDatasetFromFile);
+
+        // Create the session by calling POST /psi passing the selected psiAlgorithmParameter as body.
+        // If a Bloom Filter was stored by a previous execution, the server is asked to only send a newer one
+        BloomFilterStore bloomFilterStore = bloomFilterMaxAge != null && bloomFilterFile != null ? new BloomFilterStore(bloomFilterFile, serverBaseUrl) : null;
+        BloomFilterStore.StoredBloomFilter storedBloomFilter = bloomFilterStore != null ? bloomFilterStore.load() : null;
+        PsiClientSessionDTO psiClientSessionDTO = psiMetrics.time(PsiMetrics.SESSION_CREATION, () -> storedBloomFilter == null ?
+                psiServerApi.postPsi(new PsiAlgorithmParameterDTO(psiAlgorithmParameter))
+                : psiServerApi.postPsi(new PsiAlgorithmParameterDTO(psiAlgorithmParameter), storedBloomFilter.getCreationDate()));
 
         // If the server sent a Bloom Filter was created less than bloomFilterMaxAge minutes ago
-        // then filter the input dataset with the Bloom Filter
+        // then filter the input dataset with the Bloom Filter while reading it
         if(this.bloomFilterMaxAge != null && psiClientSessionDTO.getBloomFilterDTO() != null){
-            if(psiClientSessionDTO.getBloomFilterDTO().getSerializedBloomFilter() == null
-                    || psiClientSessionDTO.getExpiration() == null)
-                throw new CommandLine.ParameterException(spec.commandLine(), "Error reading the BloomFilterDTO in the PsiClientSessionDTO");
-
+            MappedBloomFilter bloomFilter = psiMetrics.time(PsiMetrics.BLOOM_FILTER_LOAD, () -> resolveBloomFilter(psiClientSessionDTO, bloomFilterStore, storedBloomFilter));
             if(psiClientSessionDTO.getBloomFilterDTO().getBloomFilterCreationDate().
                     isAfter(Instant.now().minus(bloomFilterMaxAge, ChronoUnit.MINUTES))){
-                this.clientDataset = getFilteredDatasetWithBloomFilter(psiClientSessionDTO.getBloomFilterDTO());
-                System.out.println("Dataset filtered to " + clientDataset.size() + " entries by applying the Bloom Filter");
+                this.clientDatasetFilter = bloomFilter;
             } else System.out.println("The Bloom Filter sent by the server is stale");
         }
 
+        if(clientSetChunkSize < 1 && !loadDatasetBeforeSession)
+            psiMetrics.time(PsiMetrics.FILE_LOAD, this::loadDatasetFromFile);
+
         // When creating the psiClient, if a key description file is passed as parameter, we use it for keys.
         // Similarly, if enabled, set up and validate the cache
         PsiClient psiClient;
+        PsiCacheProvider psiCacheProvider = null;
+        PsiCacheProvider remoteCacheProvider = null;
         if(!cache) {
             try{
                 if (keyDescriptionFile == null)
@@ -172,39 +367,51 @@ public class PsiClientCLI implements Runnable{
                 throw new CommandLine.ParameterException(spec.commandLine(), unsupportedKeySizeException.getMessage());
             }
         } else{
-            RedisPsiCacheProvider redisPsiCacheProvider;
-            try{
-                redisPsiCacheProvider = new RedisPsiCacheProvider(cacheUrl, cachePort);
-            } catch (JedisConnectionException jedisConnectionException){
-                throw new CommandLine.ParameterException(spec.commandLine(), "Cannot connect to the Redis server at "+cacheUrl+":"+cachePort);
-            }
+            remoteCacheProvider = acquireRemoteCacheProvider();
+            psiCacheProvider = withNearCache(remoteCacheProvider);
+            // The latency of each cache operation is only recorded if the metrics are exported
+            PsiCacheProvider sdkCacheProvider = metricsFile != null ? new MeteredPsiCacheProvider(psiCacheProvider, psiMetrics) : psiCacheProvider;
             try {
                 if (keyDescriptionFile == null)
-                    psiClient = PsiClientFactory.loadSession(psiClientSessionDTO.getPsiClientSession(), redisPsiCacheProvider);
+                    psiClient = PsiClientFactory.loadSession(psiClientSessionDTO.getPsiClientSession(), sdkCacheProvider);
                 else
-                    psiClient = PsiClientFactory.loadSession(psiClientSessionDTO.getPsiClientSession(), readKeyDescriptionFromFile(keyDescriptionFile), redisPsiCacheProvider);
+                    psiClient = PsiClientFactory.loadSession(psiClientSessionDTO.getPsiClientSession(), readKeyDescriptionFromFile(keyDescriptionFile), sdkCacheProvider);
             } catch (UnsupportedKeySizeException unsupportedKeySizeException){
+                releaseCacheProvider(remoteCacheProvider);
                 throw new CommandLine.ParameterException(spec.commandLine(), unsupportedKeySizeException.getMessage());
             }
         }
 
-        // Send the encrypted client dataset and load the returned entries (double encrypted client dataset)
-        Map<Long, String> encryptedMap = psiClient.loadAndEncryptClientDataset(clientDataset);
-        PsiDatasetMapDTO doubleEncryptedMapWrapped = psiServerApi.postPsiClientSet(psiClientSessionDTO.getSessionId(), new PsiDatasetMapDTO(encryptedMap));
-        psiClient.loadDoubleEncryptedClientDataset(doubleEncryptedMapWrapped.getContent());
+        // The client-set branch (encryption and upload of the client dataset) and the server-set branch
+        // (download and processing of the server dataset) are independent until computePsi is called.
+        // Since the psi-sdk is thread-safe, they can optionally run concurrently
+        Long sessionId = psiClientSessionDTO.getSessionId();
+        PageSizeController pageSizeController;
+        Set<String> psiResult;
+        try {
+            if(concurrentBranches){
+                ExecutorService clientSetExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("psi-client-set-%d").setDaemon(true).build());
+                try {
+                    Future<?> clientSetBranch = clientSetExecutor.submit(() -> runClientSetBranch(psiServerApi, psiClient, sessionId, psiMetrics));
+                    pageSizeController = runServerSetBranch(psiServerApi, psiClient, sessionId, psiMetrics);
+                    waitForBranch(clientSetBranch);
+                } finally {
+                    clientSetExecutor.shutdownNow();
+                }
+            } else {
+                runClientSetBranch(psiServerApi, psiClient, sessionId, psiMetrics);
+                pageSizeController = runServerSetBranch(psiServerApi, psiClient, sessionId, psiMetrics);
+            }
 
-        // Read the encrypted server dataset
-        int page = 0;
-        int size = 100;
-        PsiServerDatasetPageDTO serverDatasetPageDTO;
-        do{
-            serverDatasetPageDTO = psiServerApi.getPsiServerSetPage(psiClientSessionDTO.getSessionId(), page++, size);
-            psiClient.loadAndProcessServerDataset(serverDatasetPageDTO.getContent());
-        } while(Boolean.FALSE.equals(serverDatasetPageDTO.getLast()));
+            // Compute PSI
+            psiResult = psiMetrics.time(PsiMetrics.COMPUTE_PSI, psiClient::computePsi);
+        } finally {
+            // Flushes the writes buffered by the cache provider, if any
+            releaseCacheProvider(remoteCacheProvider);
+        }
 
-        // Compute PSI and write the result on the output file
-        Set<String> psiResult = psiClient.computePsi();
-        writeResultFile(psiResult);
+        // Write the result on the output file
+        psiMetrics.time(PsiMetrics.RESULT_WRITE, () -> writeResultFile(psiResult));
 
         // Save key description used during by the execution in the outputKeyDescriptionFile
         writeKeyDescriptionToFile(psiClient.getClientKeyDescription(), outputKeyDescriptionFile);
@@ -215,17 +422,421 @@ public class PsiClientCLI implements Runnable{
         ProcessExecutionResult processExecutionResult = new ProcessExecutionResult();
         processExecutionResult.psiSize = psiResult.size();
         processExecutionResult.successful = true;
+        processExecutionResult.serverSetPages = pageSizeController.getRequestedPages();
+        processExecutionResult.serverSetSmallestPageSize = pageSizeController.getSmallestPageSize();
+        processExecutionResult.serverSetLargestPageSize = pageSizeController.getLargestPageSize();
         System.out.println("\nPrinting execution statistics");
         for(PsiPhaseStatistics psiPhaseStatistics : psiClient.getStatisticList()){
             System.out.println(psiPhaseStatistics);
             processExecutionResult.totalCacheHit += psiPhaseStatistics.getCacheHit();
             processExecutionResult.totalCacheMiss += psiPhaseStatistics.getCacheMiss();
         }
+        if(psiCacheProvider instanceof NearCachePsiCacheProvider){
+            NearCachePsiCacheProvider nearCachePsiCacheProvider = (NearCachePsiCacheProvider) psiCacheProvider;
+            processExecutionResult.nearCacheHit = nearCachePsiCacheProvider.getNearCacheHit();
+            processExecutionResult.nearCacheMiss = nearCachePsiCacheProvider.getNearCacheMiss();
+            processExecutionResult.remoteCacheHit = nearCachePsiCacheProvider.getRemoteCacheHit();
+            processExecutionResult.remoteCacheMiss = nearCachePsiCacheProvider.getRemoteCacheMiss();
+            System.out.println("Near cache hit=" + processExecutionResult.nearCacheHit + " miss=" + processExecutionResult.nearCacheMiss
+                    + ", Redis cache hit=" + processExecutionResult.remoteCacheHit + " miss=" + processExecutionResult.remoteCacheMiss);
+        }
         System.out.println();
 
+        psiMetrics.increment(PsiMetrics.CACHE_HIT, processExecutionResult.totalCacheHit);
+        psiMetrics.increment(PsiMetrics.CACHE_MISS, processExecutionResult.totalCacheMiss);
+        psiMetrics.record(PsiMetrics.TOTAL, System.nanoTime() - computeStart);
+        processExecutionResult.psiMetrics = psiMetrics;
+        if(metricsFile != null) {
+            try {
+                psiMetrics.write(metricsFile, metricsFormat);
+            } catch (IOException e) {
+                throw new PsiDemoClientRuntimeException("Error writing the metrics file");
+            }
+            System.out.println("Metrics written on " + metricsFile.getPath());
+        }
+
+        return processExecutionResult;
+    }
+
+    /**
+     * Returns the Bloom Filter to be used in the current session: the one sent by the server, which is stored for the
+     * following executions if a store is defined, or the stored one if the server did not send it because it is not
+     * newer than the stored one. The serialized Bloom Filter is queried in place rather than deserialized.
+     */
+    private MappedBloomFilter resolveBloomFilter(PsiClientSessionDTO psiClientSessionDTO, BloomFilterStore bloomFilterStore, BloomFilterStore.StoredBloomFilter storedBloomFilter){
+        BloomFilterDTO bloomFilterDTO = psiClientSessionDTO.getBloomFilterDTO();
+        if(bloomFilterDTO.getBloomFilterCreationDate() == null || psiClientSessionDTO.getExpiration() == null)
+            throw new CommandLine.ParameterException(spec.commandLine(), "Error reading the BloomFilterDTO in the PsiClientSessionDTO");
+
+        if(bloomFilterDTO.getSerializedBloomFilter() == null) {
+            if(storedBloomFilter == null || bloomFilterDTO.getBloomFilterCreationDate().isAfter(storedBloomFilter.getCreationDate()))
+                throw new CommandLine.ParameterException(spec.commandLine(), "Error reading the BloomFilterDTO in the PsiClientSessionDTO");
+            System.out.println("The Bloom Filter of the server is not newer than the one stored in " + bloomFilterFile.getPath() + ", which is reused");
+            return storedBloomFilter.getBloomFilter();
+        }
+        MappedBloomFilter bloomFilter = MappedBloomFilter.wrap(ByteBuffer.wrap(bloomFilterDTO.getSerializedBloomFilter()));
+        if(bloomFilterStore != null) {
+            try {
+                bloomFilterStore.save(bloomFilterDTO);
+            } catch (IOException e) {
+                System.out.println("Cannot store the Bloom Filter in " + bloomFilterFile.getPath() + ": " + e.getMessage());
+            }
+        }
+        return bloomFilter;
+    }
+
+    /**
+     * Pre-computes the encryptions of the client dataset into the cache, such that a later compute with the same
+     * keys is mostly served by the cache. The client dataset is neither sent to the server nor kept in memory.
+     * The session is only created to retrieve the public key of the server, thus the cache is useful only if the
+     * server reuses its key (BS and ECBS) or the key description is passed with --keyDescription.
+     * Code executed when passing warmup as the first argument (command).
+     *
+     * @param psiServerApi psiServerApi object which performs the API client towards the server
+     * @return ProcessExecutionResult object, which provides the cache hits and misses of the warm-up
+     */
+    public ProcessExecutionResult runWarmup(PsiServerApi psiServerApi) {
+        System.out.println("PSI Client warm-up started. Running algorithm "+algorithm+" with keySize "+keySize);
+        if(!cache)
+            throw new CommandLine.ParameterException(spec.commandLine(), "The warmup command requires the cache (--cache)");
+        validateInputDataset();
+        PsiAlgorithmParameter psiAlgorithmParameter = createPsiAlgorithmParameter();
+        // The client keys of DH and ECDH are random unless read from a key description file
+        if(keyDescriptionFile == null && (psiAlgorithmParameter.getAlgorithm() == PsiAlgorithm.DH || psiAlgorithmParameter.getAlgorithm() == PsiAlgorithm.ECDH))
+            throw new CommandLine.ParameterException(spec.commandLine(), "The warmup command requires --keyDescription for the DH and ECDH algorithms");
+        PsiClientKeyDescription psiClientKeyDescription = readKeyDescriptionFromFile(keyDescriptionFile);
+
+        PsiClientSessionDTO psiClientSessionDTO = psiServerApi.postPsi(new PsiAlgorithmParameterDTO(psiAlgorithmParameter));
+        PsiCacheProvider remoteCacheProvider = createRemoteCacheProvider();
+        PsiCacheProvider psiCacheProvider = withNearCache(remoteCacheProvider);
+        ExecutorService warmupExecutor = warmupThreads > 0 ?
+                Executors.newFixedThreadPool(warmupThreads, new ThreadFactoryBuilder().setNameFormat("psi-warmup-%d").setDaemon(true).build())
+                : null;
+        PsiClientSetWarmer warmer;
+        try {
+            // Fail fast if the session cannot be loaded, rather than on each chunk
+            loadSession(psiClientSessionDTO, psiClientKeyDescription, psiCacheProvider);
+            warmer = new PsiClientSetWarmer(() -> {
+                try {
+                    return loadSession(psiClientSessionDTO, psiClientKeyDescription, psiCacheProvider);
+                } catch (UnsupportedKeySizeException unsupportedKeySizeException) {
+                    throw new PsiDemoClientRuntimeException(unsupportedKeySizeException.getMessage());
+                }
+            }, warmupThreads, warmupExecutor);
+            int chunkSize = clientSetChunkSize > 0 ? clientSetChunkSize : WARMUP_DEFAULT_CHUNK_SIZE;
+            try (StreamingDatasetReader datasetReader = new StreamingDatasetReader(inputDataset, charset, chunkSize, null)) {
+                int chunks = warmer.warmAll(datasetReader);
+                System.out.println(warmer.getEncryptedEntries() + " entries encrypted in " + chunks + " chunks ("
+                        + datasetReader.getDuplicatedEntries() + " duplicates skipped)");
+            } catch (IOException e) {
+                throw new PsiDemoClientRuntimeException("Cannot read the input dataset");
+            }
+        } catch (UnsupportedKeySizeException unsupportedKeySizeException){
+            throw new CommandLine.ParameterException(spec.commandLine(), unsupportedKeySizeException.getMessage());
+        } finally {
+            if(warmupExecutor != null)
+                warmupExecutor.shutdownNow();
+            closeCacheProvider(remoteCacheProvider);
+        }
+        System.out.println("Cache warmed up: " + warmer.getCacheMiss() + " encryptions computed and cached, " + warmer.getCacheHit() + " already cached");
+
+        ProcessExecutionResult processExecutionResult = new ProcessExecutionResult();
+        processExecutionResult.successful = true;
+        processExecutionResult.totalCacheHit = (int) warmer.getCacheHit();
+        processExecutionResult.totalCacheMiss = (int) warmer.getCacheMiss();
         return processExecutionResult;
     }
 
+    /**
+     * Runs a resident process which accepts compute jobs on a local HTTP endpoint (see PsiDaemon) until the process
+     * is terminated, such that the jobs share the JIT-compiled code, the connections towards the server and the cache.
+     * Code executed when passing daemon as the first argument (command).
+     *
+     * @param psiServerApiSupplier supplier of the psiServerApi objects used by the jobs, which should share the transport
+     * @param daemonArgs the arguments of the daemon without the command, which are the base arguments of each job
+     */
+    public void runDaemon(Supplier<PsiServerApi> psiServerApiSupplier, List<String> daemonArgs){
+        PsiDaemon psiDaemon = startDaemon(psiServerApiSupplier, daemonArgs);
+        // Completes the accepted jobs and closes the cache when the process is terminated (e.g., SIGTERM)
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stopDaemon(psiDaemon)));
+        try {
+            psiDaemon.awaitStop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts accepting compute jobs. The arguments of each job (e.g., --inputDataset and --output) are appended to the
+     * arguments of the daemon, overriding them. The server is the one of the daemon. A remote cache provider is opened
+     * by the first job using its cache options (e.g., --cacheType and --cacheUrl) and shared with the following jobs
+     * using the same options, while the near cache is shared by all the jobs.
+     *
+     * @param psiServerApiSupplier supplier of the psiServerApi objects used by the jobs. A psiServerApi is created
+     *                             for each thread running the jobs, and reused by its following jobs
+     * @param daemonArgs the base arguments of each job
+     * @return the started daemon, which should be stopped with stopDaemon
+     */
+    public PsiDaemon startDaemon(Supplier<PsiServerApi> psiServerApiSupplier, List<String> daemonArgs){
+        openSharedCaches();
+        // A failed API call should only fail its job. Since each execution sets its metrics on the psiServerApi,
+        // the jobs running concurrently cannot share the same instance
+        ThreadLocal<PsiServerApi> psiServerApis = ThreadLocal.withInitial(() -> {
+            PsiServerApi psiServerApi = psiServerApiSupplier.get();
+            psiServerApi.setExitOnError(false);
+            return psiServerApi;
+        });
+        PsiDaemon psiDaemon;
+        try {
+            psiDaemon = new PsiDaemon(new InetSocketAddress(daemonHost, daemonPort), daemonConcurrency, daemonQueueSize,
+                    jobArgs -> {
+                        PsiClientCLI job = createJob(daemonArgs, jobArgs);
+                        if(!serverBaseUrl.equals(job.serverBaseUrl))
+                            throw new CommandLine.ParameterException(job.spec.commandLine(), "The jobs of the daemon cannot change the serverUrl");
+                        return job.runCompute(psiServerApis.get());
+                    });
+        } catch (IOException | IllegalArgumentException e) {
+            closeSharedCaches();
+            throw new CommandLine.ParameterException(spec.commandLine(), "Cannot start the daemon on " + daemonHost + ":" + daemonPort + ": " + e.getMessage());
+        }
+        psiDaemon.start();
+        System.out.println("PSI Client daemon listening on " + daemonHost + ":" + psiDaemon.getPort());
+        return psiDaemon;
+    }
+
+    /**
+     * Waits for the accepted jobs to complete and closes the shared cache providers.
+     *
+     * @param psiDaemon the daemon returned by startDaemon
+     */
+    public void stopDaemon(PsiDaemon psiDaemon){
+        psiDaemon.stop();
+        closeSharedCaches();
+    }
+
+    /**
+     * Runs the compute jobs listed by the manifest (--batchManifest) on a shared pool of --batchConcurrency threads,
+     * such that a single process serves many datasets and servers. The arguments of each job are appended to the
+     * arguments of the batch, overriding them. The transport towards the servers and the near cache are shared by all
+     * the jobs, and the remote cache provider by the jobs using the same cache options. The result of each job is written on its own output file, which defaults to
+     * NAME-out.txt (and NAME-key.yaml for the key description), and the outcome of every job on --batchSummary.
+     * A failed job does not stop the others.
+     * Code executed when passing batch as the first argument (command).
+     *
+     * @param psiServerApiFactory creates the psiServerApi object of a job given its server URL. The created objects
+     *                            should share the transport
+     * @param batchArgs the arguments of the batch without the command, which are the base arguments of each job
+     * @return the results of the jobs, in the same order as the manifest
+     */
+    public List<BatchJobResult> runBatch(Function<String, PsiServerApi> psiServerApiFactory, List<String> batchArgs){
+        if(batchManifest == null)
+            throw new CommandLine.ParameterException(spec.commandLine(), "The option --batchManifest (-bm) is required for the batch command");
+        if(batchConcurrency < 1)
+            throw new CommandLine.ParameterException(spec.commandLine(), "The option --batchConcurrency should be greater than 0");
+        List<BatchJob> batchJobs = BatchManifest.read(batchManifest).getJobs();
+        System.out.println("PSI Client batch started. Running " + batchJobs.size() + " jobs, at most " + batchConcurrency + " at a time");
+        long batchStart = System.nanoTime();
+
+        List<BatchJobResult> batchJobResults;
+        openSharedCaches();
+        try {
+            batchJobResults = new PsiBatchRunner(batchConcurrency).runAll(batchJobs, batchJob -> runBatchJob(psiServerApiFactory, batchArgs, batchJob));
+        } finally {
+            closeSharedCaches();
+        }
+
+        long batchDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart);
+        long failedJobs = batchJobResults.stream().filter(batchJobResult -> !batchJobResult.isSuccessful()).count();
+        System.out.println("PSI Client batch completed in " + batchDurationMillis + " ms: " + (batchJobResults.size() - failedJobs) + " jobs successful, " + failedJobs + " failed");
+        try {
+            PsiBatchRunner.writeSummary(batchSummaryFile, batchJobResults, batchDurationMillis);
+        } catch (IOException e) {
+            throw new PsiDemoClientRuntimeException("Cannot write the batch summary on " + batchSummaryFile.getPath());
+        }
+        System.out.println("Batch summary written on " + batchSummaryFile.getPath());
+        return batchJobResults;
+    }
+
+    private BatchJobResult runBatchJob(Function<String, PsiServerApi> psiServerApiFactory, List<String> batchArgs, BatchJob batchJob){
+        // The jobs run concurrently, thus they cannot share the output files
+        if(batchJob.getOutput() == null)
+            batchJob.setOutput(batchJob.getName() + "-out.txt");
+        if(batchJob.getOutputKeyDescription() == null)
+            batchJob.setOutputKeyDescription(batchJob.getName() + "-key.yaml");
+        List<String> jobArgs = batchJob.toArgs();
+        if(metricsFile != null)
+            jobArgs.addAll(0, Arrays.asList("--metricsFile", new File(metricsFile.getAbsoluteFile().getParentFile(), batchJob.getName() + "-" + metricsFile.getName()).getPath()));
+        PsiClientCLI job = createJob(batchArgs, jobArgs);
+
+        // Since each execution sets its metrics on the psiServerApi, each job has its own instance
+        PsiServerApi psiServerApi = psiServerApiFactory.apply(job.serverBaseUrl);
+        psiServerApi.setExitOnError(false);
+        ProcessExecutionResult processExecutionResult = job.runCompute(psiServerApi);
+
+        BatchJobResult batchJobResult = new BatchJobResult(batchJob);
+        batchJobResult.setServerUrl(job.serverBaseUrl);
+        batchJobResult.setSuccessful(processExecutionResult.successful);
+        batchJobResult.setPsiSize(processExecutionResult.psiSize);
+        batchJobResult.setTotalCacheHit(processExecutionResult.totalCacheHit);
+        batchJobResult.setTotalCacheMiss(processExecutionResult.totalCacheMiss);
+        return batchJobResult;
+    }
+
+    /**
+     * Parses the arguments of a job of the daemon or batch commands, which share the caches of this object.
+     *
+     * @param baseArgs the arguments of the daemon or batch command, without the command
+     * @param jobArgs the arguments of the job, which override the base ones
+     * @return the job, whose command is compute
+     */
+    private PsiClientCLI createJob(List<String> baseArgs, List<String> jobArgs){
+        PsiClientCLI job = new PsiClientCLI();
+        List<String> args = new ArrayList<>(baseArgs);
+        args.add("compute");
+        args.addAll(jobArgs);
+        new CommandLine(job).setOverwrittenOptionsAllowed(true).parseArgs(args.toArray(new String[0]));
+        job.validateServerBaseUrl();
+        job.sharedCacheProviders = sharedCacheProviders;
+        job.nearCache = nearCache;
+        return job;
+    }
+
+    private void openSharedCaches(){
+        sharedCacheProviders = new ConcurrentHashMap<>();
+        if(nearCacheMaxMegabytes > 0)
+            nearCache = NearCachePsiCacheProvider.newNearCache((long) nearCacheMaxMegabytes << 20, nearCacheTtl);
+    }
+
+    private void closeSharedCaches(){
+        sharedCacheProviders.values().forEach(PsiClientCLI::closeCacheProvider);
+        sharedCacheProviders.clear();
+    }
+
+    /**
+     * Sends the encrypted client dataset and loads the returned entries (double encrypted client dataset).
+     *
+     * @param psiServerApi psiServerApi object which performs the API client towards the server
+     * @param psiClient the PsiClient of the current session
+     * @param sessionId the session identifier
+     * @param psiMetrics the metrics of the current execution
+     */
+    private void runClientSetBranch(PsiServerApi psiServerApi, PsiClient psiClient, Long sessionId, PsiMetrics psiMetrics){
+        if(clientSetChunkSize < 1) {
+            Map<Long, String> encryptedMap = psiMetrics.time(PsiMetrics.CLIENT_ENCRYPTION, () -> psiClient.loadAndEncryptClientDataset(clientDataset));
+            psiMetrics.increment(PsiMetrics.CLIENT_SET_ENTRIES, encryptedMap.size());
+            PsiDatasetMapDTO doubleEncryptedMapWrapped = psiServerApi.postPsiClientSet(sessionId, new PsiDatasetMapDTO(encryptedMap));
+            psiMetrics.time(PsiMetrics.CLIENT_SET_LOAD, () -> psiClient.loadDoubleEncryptedClientDataset(doubleEncryptedMapWrapped.getContent()));
+            return;
+        }
+
+        // Stream the client dataset from the file, encrypting and uploading it in chunks of clientSetChunkSize entries
+        ExecutorService uploaderExecutor = clientSetInFlightChunks > 0 ?
+                IoExecutors.newIoExecutor("psi-client-set-uploader-", clientSetInFlightChunks, !platformIoThreads)
+                : null;
+        try (StreamingDatasetReader datasetReader = new StreamingDatasetReader(inputDataset, charset, clientSetChunkSize, clientDatasetFilter)) {
+            PsiClientSetUploader uploader = new PsiClientSetUploader(psiServerApi, psiClient, sessionId, clientSetInFlightChunks, uploaderExecutor, psiMetrics);
+            int uploadedChunks = uploader.uploadAll(datasetReader);
+            System.out.println(datasetReader.getReturnedEntries() + " entries read from dataset file and uploaded in " + uploadedChunks + " chunks ("
+                    + datasetReader.getDuplicatedEntries() + " duplicates skipped, "
+                    + datasetReader.getFilteredEntries() + " entries filtered out by the Bloom Filter)");
+        } catch (IOException e) {
+            throw new PsiDemoClientRuntimeException("Cannot read the input dataset");
+        } finally {
+            if(uploaderExecutor != null)
+                uploaderExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the encrypted server dataset, downloading the next pages while the current one is processed.
+     *
+     * @param psiServerApi psiServerApi object which performs the API client towards the server
+     * @param psiClient the PsiClient of the current session
+     * @param sessionId the session identifier
+     * @param psiMetrics the metrics of the current execution
+     * @return the PageSizeController used to download the server dataset, which provides statistics on the page sizes
+     */
+    private PageSizeController runServerSetBranch(PsiServerApi psiServerApi, PsiClient psiClient, Long sessionId, PsiMetrics psiMetrics){
+        int minPageSize = serverSetMinPageSize == null ? serverSetPageSize : serverSetMinPageSize;
+        int maxPageSize = serverSetMaxPageSize == null ? serverSetPageSize : serverSetMaxPageSize;
+        if(minPageSize < 1 || minPageSize > serverSetPageSize || serverSetPageSize > maxPageSize)
+            throw new CommandLine.ParameterException(spec.commandLine(), "The page sizes should satisfy 0 < --minPageSize <= --pageSize <= --maxPageSize");
+        ExecutorService pageFetcherExecutor = serverSetInFlightPages > 0 ?
+                IoExecutors.newIoExecutor("psi-page-fetcher-", serverSetInFlightPages, !platformIoThreads)
+                : null;
+        try {
+            PsiServerSetPageFetcher pageFetcher = new PsiServerSetPageFetcher(psiServerApi, sessionId, serverSetPageSize, minPageSize, maxPageSize,
+                    serverSetInFlightPages, pageFetcherExecutor, serverSetStreamingBatchSize);
+            int pages = pageFetcher.fetchAll(entries -> {
+                psiMetrics.increment(PsiMetrics.SERVER_SET_ENTRIES, entries.size());
+                psiMetrics.time(PsiMetrics.SERVER_SET_PAGE_PROCESS, () -> psiClient.loadAndProcessServerDataset(entries));
+            });
+            PageSizeController pageSizeController = pageFetcher.getPageSizeController();
+            System.out.println("Server dataset downloaded in " + pages + " pages of size between "
+                    + pageSizeController.getSmallestPageSize() + " and " + pageSizeController.getLargestPageSize());
+            return pageSizeController;
+        } finally {
+            if(pageFetcherExecutor != null)
+                pageFetcherExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Prints the number of keys stored in the Redis cache (defined by --cacheUrl and --cachePort, or --cacheNodes) and
+     * their memory usage, grouped by namespace, which is useful to size the Redis instance. With --cacheCluster,
+     * the keys of all the master nodes of the Redis Cluster are counted, rather than only the ones of --cacheNodes.
+     * Code executed when passing cacheStats as the first argument (command).
+     *
+     * @return the statistics of the Redis cache
+     */
+    public RedisCacheStatistics runCacheStats(){
+        List<HostAndPort> nodes = new ArrayList<>();
+        if(cacheNodes == null || cacheNodes.isEmpty())
+            nodes.add(new HostAndPort(cacheUrl, cachePort));
+        else if(cacheCluster)
+            nodes.addAll(findClusterMasters(parseCacheNodes()));
+        else nodes.addAll(parseCacheNodes());
+
+        List<Jedis> connections = new ArrayList<>();
+        try {
+            for(HostAndPort node : nodes)
+                connections.add(new Jedis(node));
+            RedisCacheStatistics redisCacheStatistics = RedisCacheStatistics.collect(connections);
+            System.out.println("Namespace | Keys | Memory (bytes)");
+            for(String namespace : redisCacheStatistics.getNamespaces())
+                System.out.println(namespace + " | " + redisCacheStatistics.getKeyCount(namespace) + " | " + redisCacheStatistics.getMemoryUsage(namespace));
+            for(int i = 0; i < nodes.size(); i++) {
+                for(String line : connections.get(i).info("memory").split("\r?\n")) {
+                    if(line.startsWith("used_memory:") || line.startsWith("used_memory_human:") || line.startsWith("maxmemory_human:"))
+                        System.out.println(nodes.get(i) + " " + line);
+                }
+            }
+            return redisCacheStatistics;
+        } catch (JedisConnectionException jedisConnectionException){
+            throw new CommandLine.ParameterException(spec.commandLine(), "Cannot connect to the Redis server at "+nodes);
+        } finally {
+            connections.forEach(Jedis::close);
+        }
+    }
+
+    /**
+     * Asks the first reachable node of the input ones for the master nodes of the Redis Cluster.
+     */
+    private List<HostAndPort> findClusterMasters(Set<HostAndPort> seedNodes){
+        for(HostAndPort seedNode : seedNodes) {
+            try (Jedis jedis = new Jedis(seedNode)) {
+                List<HostAndPort> masters = RedisCacheStatistics.parseClusterMasters(jedis.clusterNodes(), seedNode.getHost());
+                System.out.println("Counting the keys of the " + masters.size() + " master nodes of the Redis Cluster: " + masters);
+                return masters;
+            } catch (JedisConnectionException jedisConnectionException){
+                System.out.println("Cannot connect to the Redis Cluster node " + seedNode);
+            } catch (JedisException jedisException){
+                throw new CommandLine.ParameterException(spec.commandLine(), "Cannot list the nodes of the Redis Cluster at " + seedNode + ": " + jedisException.getMessage());
+            }
+        }
+        throw new CommandLine.ParameterException(spec.commandLine(), "Cannot connect to the Redis Cluster at " + seedNodes);
+    }
+
     /**
      * Returns a list of pairs of algorithms and key sizes (PsiAlgorithmParameterDTO) supported by the server for PSI calculations.
      * Code executed when passing list as the first argument (command)
@@ -252,20 +863,234 @@ public class PsiClientCLI implements Runnable{
     // HELPER FUNCTIONS
     //////////////////////////////////////////////////////////////
 
-    private void loadDatasetFromFile(){
+    private void validateInputDataset(){
         if(inputDataset == null)
-            throw new CommandLine.ParameterException(spec.commandLine(), "The option --inputDataset (-i) is required for the command compute");
+            throw new CommandLine.ParameterException(spec.commandLine(), "The option --inputDataset (-i) is required for the commands compute and warmup");
+        if(!inputDataset.canRead())
+            throw new CommandLine.ParameterException(spec.commandLine(), "Cannot read the input dataset "+inputDataset.getPath());
+    }
+
+    private void loadDatasetFromFile(){
+        validateInputDataset();
+
+        if(datasetReaderThreads > 0 && MappedDatasetReader.isSupportedCharset(charset)) {
+            try {
+                clientDataset = MappedDatasetReader.read(inputDataset, charset, datasetReaderThreads, clientDatasetFilter);
+            } catch (IOException e) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Cannot parse the input dataset");
+            }
+            printLoadedEntries();
+            return;
+        }
+        if(datasetReaderThreads > 0)
+            System.out.println("The charset " + charset + " is not supported by the memory-mapped reader. Reading the dataset sequentially");
 
         clientDataset = new HashSet<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(inputDataset))) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(inputDataset), charset))) {
             String line;
             while ((line = br.readLine()) != null) {
-                clientDataset.add(line);
+                if(clientDatasetFilter == null || clientDatasetFilter.test(line))
+                    clientDataset.add(line);
             }
         } catch (IOException e) {
             throw new CommandLine.ParameterException(spec.commandLine(), "Cannot parse the input dataset");
         }
-        System.out.println(clientDataset.size()+ " entries loaded from dataset file");
+        printLoadedEntries();
+    }
+
+    private void printLoadedEntries(){
+        if(clientDatasetFilter == null)
+            System.out.println(clientDataset.size()+ " entries loaded from dataset file");
+        else System.out.println(clientDataset.size()+ " entries loaded from dataset file after applying the Bloom Filter");
+    }
+
+    private PsiAlgorithmParameter createPsiAlgorithmParameter(){
+        PsiAlgorithmParameter psiAlgorithmParameter = new PsiAlgorithmParameter();
+        switch(algorithm){
+            case "BS":
+                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.BS);
+                break;
+            case "DH":
+                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.DH);
+                break;
+            case "ECBS":
+                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.ECBS);
+                break;
+            case "ECDH":
+                psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.ECDH);
+                break;
+            default:
+                throw new CommandLine.ParameterException(spec.commandLine(), "The input algorithm parameter is not supported");
+        }
+        psiAlgorithmParameter.setKeySize(keySize);
+        return psiAlgorithmParameter;
+    }
+
+    private static PsiClient loadSession(PsiClientSessionDTO psiClientSessionDTO, PsiClientKeyDescription psiClientKeyDescription, PsiCacheProvider psiCacheProvider) throws UnsupportedKeySizeException {
+        if(psiClientKeyDescription == null)
+            return PsiClientFactory.loadSession(psiClientSessionDTO.getPsiClientSession(), psiCacheProvider);
+        else return PsiClientFactory.loadSession(psiClientSessionDTO.getPsiClientSession(), psiClientKeyDescription, psiCacheProvider);
+    }
+
+    private static void waitForBranch(Future<?> branch){
+        try {
+            branch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PsiDemoClientRuntimeException("Interrupted while waiting for the client-set branch");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new PsiDemoClientRuntimeException("Error in the client-set branch: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Creates the cache provider selected by --cacheType.
+     */
+    private PsiCacheProvider createRemoteCacheProvider(){
+        if(cacheType == CacheType.LOCAL) {
+            try {
+                return new LocalPsiCacheProvider(cachePath);
+            } catch (IOException ioException) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Cannot open the local cache: " + ioException.getMessage());
+            }
+        }
+        return createRedisCacheProvider();
+    }
+
+    /**
+     * Returns the remote cache provider of the current execution: a new one, or, for the jobs of the daemon and batch
+     * commands, the one shared with the previous jobs having the same cache options.
+     */
+    private PsiCacheProvider acquireRemoteCacheProvider(){
+        if(sharedCacheProviders == null)
+            return createRemoteCacheProvider();
+        return sharedCacheProviders.computeIfAbsent(getCacheSharingKey(), key -> createRemoteCacheProvider());
+    }
+
+    /**
+     * Identifies the cache provider created by the cache options of the current execution, such that the jobs
+     * overriding them (e.g., --cacheType or --cachePath) do not get the provider of another job.
+     */
+    private String getCacheSharingKey(){
+        if(cacheType == CacheType.LOCAL)
+            return cacheType + ":" + cachePath.getAbsolutePath();
+        String endpoint = cacheNodes == null || cacheNodes.isEmpty() ?
+                cacheUrl + ":" + cachePort
+                : (cacheCluster ? "cluster:" : "sharded:") + cacheNodes.stream().map(String::trim).collect(Collectors.joining(","));
+        String sharingKey = cacheType + ":" + endpoint + ":" + cacheBatchSize + ":" + cacheFlushMillis + ":" + cacheTtl;
+        // The compact encoding writes the entries in a namespace specific to the algorithm, key size and key description
+        if(compactCacheEncoding)
+            sharingKey += ":" + algorithm + ":" + keySize + ":" + (keyDescriptionFile == null ? "" : keyDescriptionFile.getAbsolutePath());
+        return sharingKey;
+    }
+
+    private void releaseCacheProvider(PsiCacheProvider remoteCacheProvider){
+        // Shared cache providers are closed when the daemon stops
+        if(sharedCacheProviders == null)
+            closeCacheProvider(remoteCacheProvider);
+    }
+
+    /**
+     * Places the near cache in front of the input cache provider, if enabled by --nearCacheMaxMegabytes.
+     */
+    private PsiCacheProvider withNearCache(PsiCacheProvider remoteCacheProvider){
+        if(nearCacheMaxMegabytes < 1)
+            return remoteCacheProvider;
+        if(nearCache == null)
+            nearCache = NearCachePsiCacheProvider.newNearCache((long) nearCacheMaxMegabytes << 20, nearCacheTtl);
+        return new NearCachePsiCacheProvider(nearCache, remoteCacheProvider);
+    }
+
+    /**
+     * Creates the Redis cache provider: a single node (--cacheUrl and --cachePort), a Redis Cluster or a sharded cache
+     * with a provider (and thus a pool of connections) for each node (--cacheNodes).
+     */
+    private PsiCacheProvider createRedisCacheProvider(){
+        CacheCodec cacheCodec = compactCacheEncoding ? createCompactCacheCodec() : CacheCodec.PLAIN;
+        if(cacheNodes == null || cacheNodes.isEmpty())
+            return createRedisNodeCacheProvider(new HostAndPort(cacheUrl, cachePort), cacheCodec);
+
+        Set<HostAndPort> nodes = parseCacheNodes();
+        if(cacheCluster) {
+            if(cacheBatchSize > 0)
+                throw new CommandLine.ParameterException(spec.commandLine(), "The cacheBatchSize parameter is not supported with a Redis Cluster");
+            try {
+                return new RedisClusterPsiCacheProvider(nodes, cacheCodec, cacheTtl);
+            } catch (JedisException jedisException) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Cannot connect to the Redis Cluster at " + nodes);
+            }
+        }
+        Map<String, PsiCacheProvider> shards = new LinkedHashMap<>();
+        try {
+            for(HostAndPort node : nodes)
+                shards.put(node.toString(), createRedisNodeCacheProvider(node, cacheCodec));
+        } catch (CommandLine.ParameterException parameterException) {
+            shards.values().forEach(PsiClientCLI::closeCacheProvider);
+            throw parameterException;
+        }
+        return new ShardedPsiCacheProvider(shards);
+    }
+
+    private PsiCacheProvider createRedisNodeCacheProvider(HostAndPort node, CacheCodec cacheCodec){
+        try{
+            if(cacheBatchSize > 0)
+                return new BatchingRedisPsiCacheProvider(node.getHost(), node.getPort(), cacheBatchSize, cacheFlushMillis, cacheCodec, cacheTtl);
+            else return new RedisPsiCacheProvider(node.getHost(), node.getPort(), cacheCodec, cacheTtl);
+        } catch (JedisConnectionException jedisConnectionException){
+            throw new CommandLine.ParameterException(spec.commandLine(), "Cannot connect to the Redis server at "+node);
+        }
+    }
+
+    private Set<HostAndPort> parseCacheNodes(){
+        Set<HostAndPort> nodes = new LinkedHashSet<>();
+        for(String cacheNode : cacheNodes) {
+            try {
+                nodes.add(HostAndPort.from(cacheNode.trim()));
+            } catch (IllegalArgumentException illegalArgumentException) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "The cache node " + cacheNode + " should be in the format host:port");
+            }
+        }
+        return nodes;
+    }
+
+    private CacheCodec createCompactCacheCodec(){
+        byte[] keyDescription = null;
+        if(keyDescriptionFile != null) {
+            try {
+                keyDescription = Files.readAllBytes(keyDescriptionFile.toPath());
+            } catch (IOException e) {
+                throw new CommandLine.ParameterException(spec.commandLine(), "Cannot read the input key description file " + keyDescriptionFile.getPath());
+            }
+        }
+        return new CompactCacheCodec(CompactCacheCodec.namespace(algorithm, keySize, keyDescription));
+    }
+
+    private static void closeCacheProvider(PsiCacheProvider psiCacheProvider){
+        if(psiCacheProvider instanceof ShardedPsiCacheProvider) {
+            for(PsiCacheProvider shard : ((ShardedPsiCacheProvider) psiCacheProvider).getShards())
+                closeCacheProvider(shard);
+        } else if(psiCacheProvider instanceof RedisClusterPsiCacheProvider) {
+            ((RedisClusterPsiCacheProvider) psiCacheProvider).close();
+        } else if(psiCacheProvider instanceof RedisPsiCacheProvider) {
+            ((RedisPsiCacheProvider) psiCacheProvider).close();
+        } else if(psiCacheProvider instanceof BatchingRedisPsiCacheProvider) {
+            BatchingRedisPsiCacheProvider batchingRedisPsiCacheProvider = (BatchingRedisPsiCacheProvider) psiCacheProvider;
+            batchingRedisPsiCacheProvider.close();
+            System.out.println("Redis cache: " + batchingRedisPsiCacheProvider.getWriteBatches() + " SETNX pipelines, "
+                    + batchingRedisPsiCacheProvider.getRejectedWrites() + " writes of keys already cached, "
+                    + batchingRedisPsiCacheProvider.getFailedWrites() + " writes failed");
+        } else if(psiCacheProvider instanceof LocalPsiCacheProvider) {
+            LocalPsiCacheProvider localPsiCacheProvider = (LocalPsiCacheProvider) psiCacheProvider;
+            try {
+                localPsiCacheProvider.close();
+            } catch (IOException e) {
+                throw new PsiDemoClientRuntimeException("Cannot close the local cache: " + e.getMessage());
+            }
+            System.out.println("Local cache: " + localPsiCacheProvider.size() + " entries, "
+                    + localPsiCacheProvider.getDroppedEntries() + " entries dropped since the cache is full");
+        }
     }
 
     private void writeResultFile(Set<String> set) {
@@ -277,6 +1102,8 @@ public class PsiClientCLI implements Runnable{
     }
 
     private void validateServerBaseUrl(){
+        if(serverBaseUrl == null)
+            throw new CommandLine.ParameterException(spec.commandLine(), "The serverUrl parameter is required by the list, compute and warmup commands, and by each job of the daemon and batch commands");
         // Remove any trailing slashes in the url
         while(serverBaseUrl.endsWith("/"))
             serverBaseUrl = serverBaseUrl.substring(0, serverBaseUrl.length()-1);
@@ -323,20 +1150,22 @@ public class PsiClientCLI implements Runnable{
         }
     }
 
-    @SuppressWarnings("UnstableApiUsage")
-    private Set<String> getFilteredDatasetWithBloomFilter(BloomFilterDTO bloomFilterDTO) {
-        BloomFilter<CharSequence> bloomFilter = BloomFilterHelper.getBloomFilterFromByteArray(bloomFilterDTO.getSerializedBloomFilter());
-        return BloomFilterHelper.filterSet(this.clientDataset, bloomFilter);
-    }
-
     /**
-     * Static class used to wrap the result of the compute command to enable in-depth unit testing
+     * Static class used to wrap the result of the compute and warmup commands to enable in-depth unit testing
      */
     public static class ProcessExecutionResult {
          private boolean successful;
          private int psiSize;
          private int totalCacheHit;
          private int totalCacheMiss;
+         private int serverSetPages;
+         private int serverSetSmallestPageSize;
+         private int serverSetLargestPageSize;
+         private long nearCacheHit;
+         private long nearCacheMiss;
+         private long remoteCacheHit;
+         private long remoteCacheMiss;
+         private PsiMetrics psiMetrics;
 
         public boolean isSuccessful() {
             return successful;
@@ -370,6 +1199,71 @@ public class PsiClientCLI implements Runnable{
             this.totalCacheMiss = totalCacheMiss;
         }
 
+        public int getServerSetPages() {
+            return serverSetPages;
+        }
+
+        public void setServerSetPages(int serverSetPages) {
+            this.serverSetPages = serverSetPages;
+        }
+
+        public int getServerSetSmallestPageSize() {
+            return serverSetSmallestPageSize;
+        }
+
+        public void setServerSetSmallestPageSize(int serverSetSmallestPageSize) {
+            this.serverSetSmallestPageSize = serverSetSmallestPageSize;
+        }
+
+        public int getServerSetLargestPageSize() {
+            return serverSetLargestPageSize;
+        }
+
+        public void setServerSetLargestPageSize(int serverSetLargestPageSize) {
+            this.serverSetLargestPageSize = serverSetLargestPageSize;
+        }
+
+        public long getNearCacheHit() {
+            return nearCacheHit;
+        }
+
+        public void setNearCacheHit(long nearCacheHit) {
+            this.nearCacheHit = nearCacheHit;
+        }
+
+        public long getNearCacheMiss() {
+            return nearCacheMiss;
+        }
+
+        public void setNearCacheMiss(long nearCacheMiss) {
+            this.nearCacheMiss = nearCacheMiss;
+        }
+
+        public long getRemoteCacheHit() {
+            return remoteCacheHit;
+        }
+
+        public void setRemoteCacheHit(long remoteCacheHit) {
+            this.remoteCacheHit = remoteCacheHit;
+        }
+
+        public long getRemoteCacheMiss() {
+            return remoteCacheMiss;
+        }
+
+        public void setRemoteCacheMiss(long remoteCacheMiss) {
+            this.remoteCacheMiss = remoteCacheMiss;
+        }
+
+        @JsonIgnore
+        public PsiMetrics getPsiMetrics() {
+            return psiMetrics;
+        }
+
+        public void setPsiMetrics(PsiMetrics psiMetrics) {
+            this.psiMetrics = psiMetrics;
+        }
+
         @Override
         public String toString() {
             return "ProcessExecutionResult{" +
@@ -377,6 +1271,13 @@ public class PsiClientCLI implements Runnable{
                     ", psiSize=" + psiSize +
                     ", totalCacheHit=" + totalCacheHit +
                     ", totalCacheMiss=" + totalCacheMiss +
+                    ", serverSetPages=" + serverSetPages +
+                    ", serverSetSmallestPageSize=" + serverSetSmallestPageSize +
+                    ", serverSetLargestPageSize=" + serverSetLargestPageSize +
+                    ", nearCacheHit=" + nearCacheHit +
+                    ", nearCacheMiss=" + nearCacheMiss +
+                    ", remoteCacheHit=" + remoteCacheHit +
+                    ", remoteCacheMiss=" + remoteCacheMiss +
                     '}';
         }
     }
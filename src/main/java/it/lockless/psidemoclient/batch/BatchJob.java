@@ -0,0 +1,129 @@
+package it.lockless.psidemoclient.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A job of the batch manifest, which is a compute execution. Each field overrides the corresponding option of the
+ * batch command, and args contains any further option of the job (e.g., ["-c", "-cce"]).
+ */
+public class BatchJob {
+
+    private String name;
+
+    private String serverUrl;
+
+    private String inputDataset;
+
+    private String algorithm;
+
+    private Integer keySize;
+
+    private String keyDescription;
+
+    private String output;
+
+    private String outputKeyDescription;
+
+    private List<String> args = Collections.emptyList();
+
+    public BatchJob() {
+    }
+
+    /**
+     * @return the arguments of the compute execution defined by this job, to be appended to the ones of the batch command
+     */
+    public List<String> toArgs() {
+        List<String> jobArgs = new ArrayList<>();
+        addOption(jobArgs, "--serverUrl", serverUrl);
+        addOption(jobArgs, "--inputDataset", inputDataset);
+        addOption(jobArgs, "--algorithm", algorithm);
+        addOption(jobArgs, "--keysize", keySize == null ? null : keySize.toString());
+        addOption(jobArgs, "--keyDescription", keyDescription);
+        addOption(jobArgs, "--output", output);
+        addOption(jobArgs, "--outputKeyDescription", outputKeyDescription);
+        if(args != null)
+            jobArgs.addAll(args);
+        return jobArgs;
+    }
+
+    private static void addOption(List<String> jobArgs, String option, String value) {
+        if(value != null) {
+            jobArgs.add(option);
+            jobArgs.add(value);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public void setServerUrl(String serverUrl) {
+        this.serverUrl = serverUrl;
+    }
+
+    public String getInputDataset() {
+        return inputDataset;
+    }
+
+    public void setInputDataset(String inputDataset) {
+        this.inputDataset = inputDataset;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Integer getKeySize() {
+        return keySize;
+    }
+
+    public void setKeySize(Integer keySize) {
+        this.keySize = keySize;
+    }
+
+    public String getKeyDescription() {
+        return keyDescription;
+    }
+
+    public void setKeyDescription(String keyDescription) {
+        this.keyDescription = keyDescription;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public String getOutputKeyDescription() {
+        return outputKeyDescription;
+    }
+
+    public void setOutputKeyDescription(String outputKeyDescription) {
+        this.outputKeyDescription = outputKeyDescription;
+    }
+
+    public List<String> getArgs() {
+        return args;
+    }
+
+    public void setArgs(List<String> args) {
+        this.args = args;
+    }
+}
@@ -0,0 +1,120 @@
+package it.lockless.psidemoclient.batch;
+
+/**
+ * Outcome of a job of the batch command, as reported in the batch summary.
+ */
+public class BatchJobResult {
+
+    private String name;
+
+    private String serverUrl;
+
+    private String inputDataset;
+
+    private String output;
+
+    private boolean successful;
+
+    private int psiSize;
+
+    private int totalCacheHit;
+
+    private int totalCacheMiss;
+
+    private long durationMillis;
+
+    private String error;
+
+    public BatchJobResult() {
+    }
+
+    /**
+     * @param batchJob the job, from which the name, server, input dataset and output are copied
+     */
+    public BatchJobResult(BatchJob batchJob) {
+        this.name = batchJob.getName();
+        this.serverUrl = batchJob.getServerUrl();
+        this.inputDataset = batchJob.getInputDataset();
+        this.output = batchJob.getOutput();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public void setServerUrl(String serverUrl) {
+        this.serverUrl = serverUrl;
+    }
+
+    public String getInputDataset() {
+        return inputDataset;
+    }
+
+    public void setInputDataset(String inputDataset) {
+        this.inputDataset = inputDataset;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    public void setSuccessful(boolean successful) {
+        this.successful = successful;
+    }
+
+    public int getPsiSize() {
+        return psiSize;
+    }
+
+    public void setPsiSize(int psiSize) {
+        this.psiSize = psiSize;
+    }
+
+    public int getTotalCacheHit() {
+        return totalCacheHit;
+    }
+
+    public void setTotalCacheHit(int totalCacheHit) {
+        this.totalCacheHit = totalCacheHit;
+    }
+
+    public int getTotalCacheMiss() {
+        return totalCacheMiss;
+    }
+
+    public void setTotalCacheMiss(int totalCacheMiss) {
+        this.totalCacheMiss = totalCacheMiss;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,73 @@
+package it.lockless.psidemoclient.batch;
+
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class holds the manifest of the batch command, written as a yaml file of the form:
+ * <pre>
+ * jobs:
+ *   - name: bank-a
+ *     serverUrl: http://server-a:8080
+ *     inputDataset: bank-a.txt
+ *     algorithm: ECBS
+ *     keySize: 256
+ *   - ...
+ * </pre>
+ */
+public class BatchManifest {
+
+    private List<BatchJob> jobs = new ArrayList<>();
+
+    public BatchManifest() {
+    }
+
+    /**
+     * Reads the manifest from a yaml file. The jobs without a name are named job-N, where N is their position
+     * (starting from 1) in the manifest.
+     *
+     * @param manifestFile the yaml file
+     * @return the manifest
+     * @throws PsiDemoClientRuntimeException if the file cannot be read or parsed, or if it defines two jobs with the same name
+     */
+    public static BatchManifest read(File manifestFile) {
+        BatchManifest batchManifest;
+        try (InputStream inputStream = Files.newInputStream(manifestFile.toPath())) {
+            Yaml yaml = new Yaml(new Constructor(BatchManifest.class));
+            batchManifest = yaml.load(inputStream);
+        } catch (IOException | YAMLException e) {
+            throw new PsiDemoClientRuntimeException("Cannot read the batch manifest " + manifestFile.getPath() + ": " + e.getMessage());
+        }
+        if(batchManifest == null || batchManifest.jobs == null)
+            batchManifest = new BatchManifest();
+
+        Set<String> names = new HashSet<>();
+        for(int i = 0; i < batchManifest.jobs.size(); i++) {
+            BatchJob batchJob = batchManifest.jobs.get(i);
+            if(batchJob.getName() == null)
+                batchJob.setName("job-" + (i + 1));
+            if(!names.add(batchJob.getName()))
+                throw new PsiDemoClientRuntimeException("The batch manifest " + manifestFile.getPath() + " defines more than one job named " + batchJob.getName());
+        }
+        return batchManifest;
+    }
+
+    public List<BatchJob> getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(List<BatchJob> jobs) {
+        this.jobs = jobs;
+    }
+}
@@ -0,0 +1,103 @@
+package it.lockless.psidemoclient.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs the jobs of a batch manifest on a shared pool of concurrency threads. A failed job does not stop the
+ * others: its exception is reported in its BatchJobResult.
+ */
+public class PsiBatchRunner {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final int concurrency;
+
+    /**
+     * @param concurrency max number of jobs run at the same time
+     */
+    public PsiBatchRunner(int concurrency) {
+        if(concurrency < 1)
+            throw new IllegalArgumentException("The concurrency should be greater than 0");
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Runs all the jobs and returns when every job is completed.
+     *
+     * @param batchJobs the jobs
+     * @param jobRunner runs a job and returns its result. It is called concurrently by different threads
+     * @return the results of the jobs, in the same order as the jobs
+     */
+    public List<BatchJobResult> runAll(List<BatchJob> batchJobs, Function<BatchJob, BatchJobResult> jobRunner) {
+        ExecutorService jobExecutor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(1, batchJobs.size())),
+                new ThreadFactoryBuilder().setNameFormat("psi-batch-%d").setDaemon(true).build());
+        try {
+            List<Future<BatchJobResult>> futures = new ArrayList<>();
+            for(BatchJob batchJob : batchJobs)
+                futures.add(jobExecutor.submit(() -> runJob(batchJob, jobRunner)));
+            List<BatchJobResult> batchJobResults = new ArrayList<>();
+            for(Future<BatchJobResult> future : futures)
+                batchJobResults.add(future.get());
+            return batchJobResults;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PsiDemoClientRuntimeException("Interrupted while running the batch");
+        } catch (ExecutionException e) {
+            // runJob does not throw
+            throw new PsiDemoClientRuntimeException("Error running the batch: " + e.getCause().getMessage());
+        } finally {
+            jobExecutor.shutdownNow();
+        }
+    }
+
+    private static BatchJobResult runJob(BatchJob batchJob, Function<BatchJob, BatchJobResult> jobRunner) {
+        long start = System.nanoTime();
+        BatchJobResult batchJobResult;
+        try {
+            batchJobResult = jobRunner.apply(batchJob);
+        } catch (RuntimeException e) {
+            batchJobResult = new BatchJobResult(batchJob);
+            batchJobResult.setSuccessful(false);
+            batchJobResult.setError(e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+        }
+        batchJobResult.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.println("Batch job " + batchJob.getName() + (batchJobResult.isSuccessful() ? " completed" : " failed: " + batchJobResult.getError()));
+        return batchJobResult;
+    }
+
+    /**
+     * Writes the summary of the batch as JSON: the number of successful and failed jobs, the total duration and
+     * the result of each job.
+     *
+     * @param summaryFile the output file
+     * @param batchJobResults the results returned by runAll
+     * @param durationMillis the duration of the whole batch
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeSummary(File summaryFile, List<BatchJobResult> batchJobResults, long durationMillis) throws IOException {
+        long successfulJobs = batchJobResults.stream().filter(BatchJobResult::isSuccessful).count();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jobs", batchJobResults.size());
+        summary.put("successfulJobs", successfulJobs);
+        summary.put("failedJobs", batchJobResults.size() - successfulJobs);
+        summary.put("durationMillis", durationMillis);
+        summary.put("results", batchJobResults);
+        OBJECT_MAPPER.writeValue(summaryFile, summary);
+    }
+}
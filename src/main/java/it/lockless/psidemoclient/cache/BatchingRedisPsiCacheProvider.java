@@ -0,0 +1,246 @@
+package it.lockless.psidemoclient.cache;
+
+import psi.cache.PsiCacheProvider;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.SetParams;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Multithreaded PsiCacheProvider implementation based on redis, which reduces the number of round trips towards
+ * redis by batching the writes on a background flusher thread.
+ * put is write-behind: the pairs are buffered and written with pipelined SET NX commands when batchSize pairs are
+ * buffered or flushMillis milliseconds have passed since the last write. At most MAX_PENDING_WRITE_BATCHES * batchSize
+ * pairs are buffered, after which put blocks.
+ * get is not batched, since the psi-sdk looks up one key at a time and waits for the result: a lookup is a GET,
+ * as in RedisPsiCacheProvider, unless the key is buffered (read-your-writes).
+ * As in RedisPsiCacheProvider, a put whose key is already buffered or stored is not an error. The latter is counted
+ * as rejected write. Since the cache is an optimization, a failed pipeline is reported and its pairs are discarded,
+ * without affecting the following writes (e.g., of the other jobs sharing the provider in the daemon command).
+ * close() should be called to flush the buffered writes.
+ */
+public class BatchingRedisPsiCacheProvider implements PsiCacheProvider, Closeable {
+
+    private static final int MAX_PENDING_WRITE_BATCHES = 4;
+
+    private final JedisPool jedisPool;
+
+    private final CacheCodec cacheCodec;
+
+    private final SetParams setParams;
+
+    private final int batchSize;
+
+    private final long flushNanos;
+
+    private final Map<String, String> pendingWrites = new ConcurrentHashMap<>();
+
+    private final Semaphore pendingWritePermits;
+
+    // put holds the read lock while checking closed and buffering a pair, close holds the write lock while setting
+    // closed, thus every pair buffered by put is flushed before the flusher thread stops
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private final Thread flusherThread;
+
+    private volatile boolean closed;
+
+    private final AtomicLong writeBatches = new AtomicLong();
+
+    private final AtomicLong rejectedWrites = new AtomicLong();
+
+    private final AtomicLong failedWrites = new AtomicLong();
+
+    /**
+     * @param host          host of the redis server
+     * @param port          port of the redis server
+     * @param batchSize     max number of SET commands of a pipeline
+     * @param flushMillis   max time for which a put is buffered before being written
+     * @param cacheCodec    encoding of the keys and values stored in redis
+     * @param ttlSeconds    if greater than 0, the entries expire after this number of seconds since they were written
+     */
+    public BatchingRedisPsiCacheProvider(String host, int port, int batchSize, long flushMillis, CacheCodec cacheCodec, long ttlSeconds) {
+        this(new JedisPool(host, port), batchSize, flushMillis, cacheCodec, ttlSeconds);
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            jedis.ping();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    BatchingRedisPsiCacheProvider(JedisPool jedisPool, int batchSize, long flushMillis, CacheCodec cacheCodec, long ttlSeconds) {
+        if(batchSize < 1)
+            throw new IllegalArgumentException("The batch size should be greater than 0");
+        this.jedisPool = jedisPool;
+        this.cacheCodec = cacheCodec;
+        this.setParams = RedisPsiCacheProvider.setParams(ttlSeconds);
+        this.batchSize = batchSize;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+        this.pendingWritePermits = new Semaphore(MAX_PENDING_WRITE_BATCHES * batchSize);
+        this.flusherThread = new Thread(this::runFlusher, "psi-cache-flusher");
+        this.flusherThread.setDaemon(true);
+        this.flusherThread.start();
+    }
+
+    /**
+     * Retrieve the value linked to a given key.
+     *
+     * @param key   key corresponding to the value to be retrieved.
+     *
+     * @return an Optional containing the cached value if present, Optional.empty() otherwise.
+     */
+    @Override
+    public Optional<String> get(String key) {
+        String pendingValue = pendingWrites.get(key);
+        if(pendingValue != null)
+            return Optional.of(pendingValue);
+        if(closed)
+            throw new IllegalStateException("The cache provider is closed");
+        try (Jedis jedis = jedisPool.getResource()) {
+            byte[] value = jedis.get(cacheCodec.encodeKey(key));
+            return value == null ? Optional.empty() : Optional.of(cacheCodec.decodeValue(value));
+        }
+    }
+
+    /**
+     * Buffers the pair <key, value>, which is then stored into the cache. If the key exists, it is not replaced.
+     * If the key is already buffered, the pair is ignored.
+     *
+     * @param key       key corresponding to the value to be stored.
+     * @param value     value to be stored.
+     */
+    @Override
+    public void put(String key, String value) {
+        try {
+            pendingWritePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to write on the cache");
+        }
+        closeLock.readLock().lock();
+        try {
+            if(closed) {
+                pendingWritePermits.release();
+                throw new IllegalStateException("The cache provider is closed");
+            }
+            if(pendingWrites.putIfAbsent(key, value) != null) {
+                pendingWritePermits.release();
+                return;
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        if(pendingWrites.size() >= batchSize)
+            LockSupport.unpark(flusherThread);
+    }
+
+    private void runFlusher() {
+        long lastWriteFlush = System.nanoTime();
+        while(!closed) {
+            LockSupport.parkNanos(this, flushNanos);
+            if(pendingWrites.size() >= batchSize || System.nanoTime() - lastWriteFlush >= flushNanos) {
+                flushWrites();
+                lastWriteFlush = System.nanoTime();
+            }
+        }
+        // No pair is buffered after closed is set
+        flushWrites();
+    }
+
+    private void flushWrites() {
+        if(pendingWrites.isEmpty())
+            return;
+        List<Map.Entry<String, String>> writeBatch = new ArrayList<>(batchSize);
+        for(Map.Entry<String, String> pendingWrite : pendingWrites.entrySet()) {
+            writeBatch.add(pendingWrite);
+            if(writeBatch.size() == batchSize) {
+                flushWrites(writeBatch);
+                writeBatch.clear();
+            }
+        }
+        if(!writeBatch.isEmpty())
+            flushWrites(writeBatch);
+    }
+
+    private void flushWrites(List<Map.Entry<String, String>> writeBatch) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<String>> responses = new ArrayList<>(writeBatch.size());
+            for(Map.Entry<String, String> pendingWrite : writeBatch)
+                responses.add(pipeline.set(cacheCodec.encodeKey(pendingWrite.getKey()), cacheCodec.encodeValue(pendingWrite.getValue()), setParams));
+            pipeline.sync();
+            writeBatches.incrementAndGet();
+            // SET NX replies null if the key was not written
+            for(Response<String> response : responses) {
+                if(response.get() == null)
+                    rejectedWrites.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            failedWrites.addAndGet(writeBatch.size());
+            System.out.println("Cannot write " + writeBatch.size() + " entries on the Redis cache: " + e.getMessage());
+        } finally {
+            // Pairs are removed only once written, such that they are visible to get in the meanwhile
+            for(Map.Entry<String, String> pendingWrite : writeBatch)
+                pendingWrites.remove(pendingWrite.getKey());
+            pendingWritePermits.release(writeBatch.size());
+        }
+    }
+
+    /**
+     * @return the number of SET NX pipelines sent to redis
+     */
+    public long getWriteBatches() {
+        return writeBatches.get();
+    }
+
+    /**
+     * @return the number of buffered pairs not written because the key was already stored in redis
+     */
+    public long getRejectedWrites() {
+        return rejectedWrites.get();
+    }
+
+    /**
+     * @return the number of buffered pairs discarded because their pipeline failed
+     */
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    /**
+     * Flushes the buffered writes, stops the flusher thread and closes the connections towards redis.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if(closed)
+                return;
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        LockSupport.unpark(flusherThread);
+        try {
+            flusherThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        jedisPool.close();
+    }
+}
@@ -0,0 +1,39 @@
+package it.lockless.psidemoclient.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes the keys and values handed by the PSI SDK to a PsiCacheProvider into the bytes stored in the cache.
+ */
+public interface CacheCodec {
+
+    /**
+     * Stores keys and values as their UTF-8 bytes, which is the format used by the Redis string API.
+     */
+    CacheCodec PLAIN = new CacheCodec() {
+        @Override
+        public byte[] encodeKey(String key) {
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] encodeValue(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decodeValue(byte[] encodedValue) {
+            return new String(encodedValue, StandardCharsets.UTF_8);
+        }
+    };
+
+    byte[] encodeKey(String key);
+
+    byte[] encodeValue(String value);
+
+    /**
+     * @param encodedValue bytes returned by encodeValue
+     * @return the original value
+     */
+    String decodeValue(byte[] encodedValue);
+}
@@ -0,0 +1,11 @@
+package it.lockless.psidemoclient.cache;
+
+/**
+ * Types of PsiCacheProvider that can be selected from the command line.
+ */
+public enum CacheType {
+    // RedisPsiCacheProvider or BatchingRedisPsiCacheProvider
+    REDIS,
+    // LocalPsiCacheProvider
+    LOCAL
+}
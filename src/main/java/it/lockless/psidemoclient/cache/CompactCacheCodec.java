@@ -0,0 +1,181 @@
+package it.lockless.psidemoclient.cache;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * CacheCodec which reduces the memory and bandwidth required by the cache:
+ * - keys are stored as the namespace followed by the first KEY_HASH_BYTES bytes of the SHA-256 of the key, regardless
+ * of the length of the key. The namespace (e.g., the algorithm, key size and key description) isolates the entries
+ * created with different keys and allows removing them with a single pattern;
+ * - values are stored as raw bytes prefixed by a tag describing their textual representation (decimal, hexadecimal or
+ * base64 big numbers), such that the original string is restored exactly. Values with any other representation are
+ * stored as UTF-8 bytes.
+ */
+public class CompactCacheCodec implements CacheCodec {
+
+    // 128-bit hashes: the probability of a collision is negligible below 2^50 keys
+    static final int KEY_HASH_BYTES = 16;
+
+    static final String NAMESPACE_PREFIX = "psi:";
+
+    private static final HashFunction KEY_HASH_FUNCTION = Hashing.sha256();
+
+    private static final byte TAG_UTF8 = 0;
+    private static final byte TAG_DECIMAL = 1;
+    private static final byte TAG_HEX_LOWER = 2;
+    private static final byte TAG_HEX_UPPER = 3;
+    private static final byte TAG_BASE64 = 4;
+    // Set on hexadecimal tags if the string has an odd number of digits, thus the first nibble is padding
+    private static final byte ODD_HEX_FLAG = 0x10;
+
+    private final byte[] namespace;
+
+    /**
+     * @param namespace prefix of all the keys, e.g., "psi:BS:2048:"
+     */
+    public CompactCacheCodec(String namespace) {
+        this.namespace = namespace.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds the namespace of the cache entries created with a given algorithm and key.
+     *
+     * @param algorithm             the PSI algorithm
+     * @param keySize               the key size
+     * @param keyDescription        a description of the client key (e.g., the content of the key description file),
+     *                              or null if the key is generated for each session
+     * @return a namespace to be passed to the constructor
+     */
+    public static String namespace(String algorithm, int keySize, byte[] keyDescription) {
+        String namespace = NAMESPACE_PREFIX + algorithm + ":" + keySize + ":";
+        if(keyDescription != null)
+            namespace += KEY_HASH_FUNCTION.hashBytes(keyDescription).toString().substring(0, 16) + ":";
+        return namespace;
+    }
+
+    @Override
+    public byte[] encodeKey(String key) {
+        byte[] encodedKey = Arrays.copyOf(namespace, namespace.length + KEY_HASH_BYTES);
+        KEY_HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8).writeBytesTo(encodedKey, namespace.length, KEY_HASH_BYTES);
+        return encodedKey;
+    }
+
+    @Override
+    public byte[] encodeValue(String value) {
+        if(isDecimal(value))
+            return tagged(TAG_DECIMAL, new BigInteger(value).toByteArray());
+        int hexCase = hexCase(value);
+        if(hexCase != 0) {
+            byte tag = hexCase > 0 ? TAG_HEX_UPPER : TAG_HEX_LOWER;
+            if(value.length() % 2 == 1)
+                return tagged((byte) (tag | ODD_HEX_FLAG), decodeHex("0" + value));
+            return tagged(tag, decodeHex(value));
+        }
+        byte[] base64 = decodeBase64(value);
+        if(base64 != null)
+            return tagged(TAG_BASE64, base64);
+        return tagged(TAG_UTF8, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String decodeValue(byte[] encodedValue) {
+        if(encodedValue.length == 0)
+            throw new IllegalArgumentException("Empty encoded value");
+        byte[] payload = Arrays.copyOfRange(encodedValue, 1, encodedValue.length);
+        byte tag = encodedValue[0];
+        switch(tag & ~ODD_HEX_FLAG) {
+            case TAG_UTF8:
+                return new String(payload, StandardCharsets.UTF_8);
+            case TAG_DECIMAL:
+                return new BigInteger(payload).toString();
+            case TAG_HEX_LOWER:
+            case TAG_HEX_UPPER:
+                String hex = encodeHex(payload, (tag & ~ODD_HEX_FLAG) == TAG_HEX_UPPER);
+                return (tag & ODD_HEX_FLAG) != 0 ? hex.substring(1) : hex;
+            case TAG_BASE64:
+                return Base64.getEncoder().encodeToString(payload);
+            default:
+                throw new IllegalArgumentException("Unknown tag of the encoded value: " + tag);
+        }
+    }
+
+    private static byte[] tagged(byte tag, byte[] payload) {
+        byte[] encodedValue = new byte[payload.length + 1];
+        encodedValue[0] = tag;
+        System.arraycopy(payload, 0, encodedValue, 1, payload.length);
+        return encodedValue;
+    }
+
+    /**
+     * @return true if the value is a non-negative decimal number without leading zeros, thus it is restored exactly
+     * by BigInteger.toString()
+     */
+    private static boolean isDecimal(String value) {
+        if(value.isEmpty() || (value.length() > 1 && value.charAt(0) == '0'))
+            return false;
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if(c < '0' || c > '9')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return 1 if the value is a hexadecimal number with upper case letters, -1 if it has lower case letters,
+     * 0 if it is not a hexadecimal number, it has no letters (thus it is decimal) or it mixes cases
+     */
+    private static int hexCase(String value) {
+        boolean lower = false;
+        boolean upper = false;
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if(c >= 'a' && c <= 'f')
+                lower = true;
+            else if(c >= 'A' && c <= 'F')
+                upper = true;
+            else if(c < '0' || c > '9')
+                return 0;
+        }
+        if(lower == upper)
+            return 0;
+        return upper ? 1 : -1;
+    }
+
+    private static byte[] decodeHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for(int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) (Character.digit(hex.charAt(2 * i), 16) << 4 | Character.digit(hex.charAt(2 * i + 1), 16));
+        return bytes;
+    }
+
+    private static String encodeHex(byte[] bytes, boolean upperCase) {
+        char[] digits = (upperCase ? "0123456789ABCDEF" : "0123456789abcdef").toCharArray();
+        char[] hex = new char[bytes.length * 2];
+        for(int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = digits[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = digits[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * @return the bytes encoded by the value if it is a canonical base64 string, null otherwise
+     */
+    private static byte[] decodeBase64(String value) {
+        if(value.isEmpty() || value.length() % 4 != 0)
+            return null;
+        try {
+            byte[] bytes = Base64.getDecoder().decode(value);
+            return Base64.getEncoder().encodeToString(bytes).equals(value) ? bytes : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
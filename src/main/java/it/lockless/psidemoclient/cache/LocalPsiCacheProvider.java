@@ -0,0 +1,348 @@
+package it.lockless.psidemoclient.cache;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import psi.cache.PsiCacheProvider;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Multithreaded PsiCacheProvider implementation backed by a local file, which does not require any external service.
+ * The pairs are stored in an append-only log of records [key length, value length, CRC32, key, value], where the CRC32
+ * covers the lengths, the key and the value. The log is indexed by an open-addressing hash table kept off-heap (in a
+ * direct ByteBuffer), whose slots store the 64-bit hash of a key and the position and length of its record. The index
+ * is rebuilt by scanning the log when the file is opened.
+ * Writes are not synchronously flushed to disk: if the process crashes, the end of the log may contain an incomplete
+ * or partially flushed record. When the file is opened, the log is truncated at the first record which is incomplete
+ * or whose checksum does not match, such that a torn record is never served.
+ * When the index is full, further pairs are not stored and are counted by getDroppedEntries.
+ * The file is locked while open, thus it cannot be shared by concurrent processes.
+ */
+public class LocalPsiCacheProvider implements PsiCacheProvider, Closeable {
+
+    // "PSIC" followed by the version of the format
+    private static final int MAGIC = 0x50534943;
+    private static final int VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 8;
+
+    private static final int RECORD_HEADER_SIZE = 12;
+    // The CRC32 covers the key and value lengths, which precede it, the key and the value
+    private static final int RECORD_CHECKSUM_OFFSET = 8;
+
+    // Each slot of the index stores the hash of the key and (position << RECORD_LENGTH_BITS | record length)
+    private static final int SLOT_SIZE = 16;
+    private static final int RECORD_LENGTH_BITS = 24;
+    private static final int MAX_RECORD_LENGTH = (1 << RECORD_LENGTH_BITS) - 1;
+    private static final int INITIAL_INDEX_SLOTS = 1 << 16;
+    // A direct ByteBuffer cannot be larger than Integer.MAX_VALUE bytes
+    private static final int MAX_INDEX_SLOTS = 1 << 26;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final FileChannel fileChannel;
+
+    private final FileLock fileLock;
+
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    private final int maxIndexSlots;
+
+    private ByteBuffer index;
+
+    private int indexMask;
+
+    private int indexedEntries;
+
+    private long logSize;
+
+    // Pairs not stored and records of the log not indexed, since the index is full
+    private long droppedEntries;
+
+    /**
+     * Opens the cache file, creating it if it does not exist.
+     *
+     * @param cacheFile the file storing the cache
+     * @throws IOException if the file cannot be opened, is not a cache file or is used by another process
+     */
+    public LocalPsiCacheProvider(File cacheFile) throws IOException {
+        this(cacheFile, MAX_INDEX_SLOTS);
+    }
+
+    LocalPsiCacheProvider(File cacheFile, int maxIndexSlots) throws IOException {
+        this.maxIndexSlots = maxIndexSlots;
+        this.fileChannel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            try {
+                this.fileLock = fileChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                throw new IOException("The cache file " + cacheFile.getPath() + " is already open");
+            }
+            if(fileLock == null)
+                throw new IOException("The cache file " + cacheFile.getPath() + " is used by another process");
+            allocateIndex(Math.min(INITIAL_INDEX_SLOTS, maxIndexSlots));
+            if(fileChannel.size() == 0)
+                writeFileHeader();
+            else loadLog(cacheFile);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    private void writeFileHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        writeFully(header, 0);
+        logSize = FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Scans the log to rebuild the index. If the log ends with an incomplete record, the log is truncated before it.
+     */
+    private void loadLog(File cacheFile) throws IOException {
+        long fileSize = fileChannel.size();
+        DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Channels.newInputStream(fileChannel.position(0)), 1 << 16));
+        if(fileSize < FILE_HEADER_SIZE || inputStream.readInt() != MAGIC)
+            throw new IOException("The file " + cacheFile.getPath() + " is not a valid cache file");
+        if(inputStream.readInt() != VERSION)
+            throw new IOException("The cache file " + cacheFile.getPath() + " was written with a different format, and should be deleted");
+
+        long position = FILE_HEADER_SIZE;
+        // Lengths, key and value of the record, whose CRC32 is checked
+        byte[] recordBytes = new byte[256];
+        while(position + RECORD_HEADER_SIZE <= fileSize) {
+            int keyLength;
+            int valueLength;
+            try {
+                keyLength = inputStream.readInt();
+                valueLength = inputStream.readInt();
+                int checksum = inputStream.readInt();
+                long recordLength = (long) RECORD_HEADER_SIZE + keyLength + valueLength;
+                if(keyLength < 0 || valueLength < 0 || recordLength > MAX_RECORD_LENGTH || position + recordLength > fileSize)
+                    break;
+                int checkedLength = RECORD_CHECKSUM_OFFSET + keyLength + valueLength;
+                if(recordBytes.length < checkedLength)
+                    recordBytes = new byte[Math.max(checkedLength, recordBytes.length << 1)];
+                ByteBuffer.wrap(recordBytes).putInt(keyLength).putInt(valueLength);
+                inputStream.readFully(recordBytes, RECORD_CHECKSUM_OFFSET, keyLength + valueLength);
+                if(checksum(recordBytes, checkedLength) != checksum)
+                    break;
+            } catch (EOFException e) {
+                break;
+            }
+            int recordLength = RECORD_HEADER_SIZE + keyLength + valueLength;
+            if(indexedEntries < maxIndexedEntries())
+                insertInIndex(hash(recordBytes, RECORD_CHECKSUM_OFFSET, keyLength), position, recordLength);
+            else droppedEntries++;
+            position += recordLength;
+        }
+        if(position < fileSize)
+            fileChannel.truncate(position);
+        logSize = position;
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, length);
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * Retrieve the value linked to a given key.
+     *
+     * @param key   key corresponding to the value to be retrieved.
+     *
+     * @return an Optional containing the cached value if present, Optional.empty() otherwise.
+     */
+    @Override
+    public Optional<String> get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        readWriteLock.readLock().lock();
+        try {
+            return Optional.ofNullable(lookup(keyBytes));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the local cache: " + e.getMessage(), e);
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the pair <key, value> into the cache. If the key exists, it is not replaced.
+     * If the index is full, the pair is not stored and is counted by getDroppedEntries.
+     * Since the value linked to a key is always the same, concurrent writers of the same key are not an error.
+     *
+     * @param key       key corresponding to the value to be stored.
+     * @param value     value to be stored.
+     */
+    @Override
+    public void put(String key, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        int recordLength = RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+        if(recordLength > MAX_RECORD_LENGTH)
+            throw new IllegalArgumentException("The pair is too large to be stored in the local cache");
+
+        readWriteLock.writeLock().lock();
+        try {
+            if(lookup(keyBytes) != null)
+                return;
+            if(indexedEntries >= maxIndexedEntries()) {
+                droppedEntries++;
+                return;
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordLength)
+                    .putInt(keyBytes.length)
+                    .putInt(valueBytes.length)
+                    .putInt(0)
+                    .put(keyBytes)
+                    .put(valueBytes);
+            // The checksum covers the lengths, the key and the value, thus the record without the checksum itself
+            CRC32 crc32 = new CRC32();
+            crc32.update(record.array(), 0, RECORD_CHECKSUM_OFFSET);
+            crc32.update(record.array(), RECORD_HEADER_SIZE, keyBytes.length + valueBytes.length);
+            record.putInt(RECORD_CHECKSUM_OFFSET, (int) crc32.getValue());
+            record.flip();
+            writeFully(record, logSize);
+            insertInIndex(hash(keyBytes, 0, keyBytes.length), logSize, recordLength);
+            logSize += recordLength;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write the local cache: " + e.getMessage(), e);
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    private String lookup(byte[] keyBytes) throws IOException {
+        long hash = hash(keyBytes, 0, keyBytes.length);
+        for(int slot = (int) hash & indexMask; ; slot = (slot + 1) & indexMask) {
+            long location = index.getLong(slot * SLOT_SIZE + 8);
+            if(location == 0)
+                return null;
+            if(index.getLong(slot * SLOT_SIZE) != hash)
+                continue;
+            // Same hash: read the record to compare the keys
+            ByteBuffer record = ByteBuffer.allocate((int) (location & MAX_RECORD_LENGTH));
+            readFully(record, location >>> RECORD_LENGTH_BITS);
+            int keyLength = record.getInt(0);
+            int valueLength = record.getInt(4);
+            if(keyLength == keyBytes.length && Arrays.equals(keyBytes, Arrays.copyOfRange(record.array(), RECORD_HEADER_SIZE, RECORD_HEADER_SIZE + keyLength)))
+                return new String(record.array(), RECORD_HEADER_SIZE + keyLength, valueLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long hash(byte[] bytes, int keyOffset, int keyLength) {
+        return HASH_FUNCTION.hashBytes(bytes, keyOffset, keyLength).asLong();
+    }
+
+    private int maxIndexedEntries() {
+        return (int) (maxIndexSlots * MAX_LOAD_FACTOR);
+    }
+
+    private void allocateIndex(int slots) {
+        index = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        indexMask = slots - 1;
+    }
+
+    private void insertInIndex(long hash, long position, int recordLength) {
+        int slots = indexMask + 1;
+        if(indexedEntries + 1 > slots * MAX_LOAD_FACTOR && slots < maxIndexSlots)
+            resizeIndex(slots << 1);
+        // Records start after the file header, thus a location is never 0, which marks empty slots
+        insertInSlot(hash, position << RECORD_LENGTH_BITS | recordLength);
+        indexedEntries++;
+    }
+
+    private void insertInSlot(long hash, long location) {
+        int slot = (int) hash & indexMask;
+        while(index.getLong(slot * SLOT_SIZE + 8) != 0)
+            slot = (slot + 1) & indexMask;
+        index.putLong(slot * SLOT_SIZE, hash);
+        index.putLong(slot * SLOT_SIZE + 8, location);
+    }
+
+    private void resizeIndex(int slots) {
+        ByteBuffer oldIndex = index;
+        int oldSlots = indexMask + 1;
+        allocateIndex(slots);
+        for(int slot = 0; slot < oldSlots; slot++) {
+            long location = oldIndex.getLong(slot * SLOT_SIZE + 8);
+            if(location != 0)
+                insertInSlot(oldIndex.getLong(slot * SLOT_SIZE), location);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining())
+            position += fileChannel.write(buffer, position);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            int read = fileChannel.read(buffer, position);
+            if(read < 0)
+                throw new EOFException("Unexpected end of the local cache file");
+            position += read;
+        }
+    }
+
+    /**
+     * @return the number of pairs stored in the cache
+     */
+    public int size() {
+        readWriteLock.readLock().lock();
+        try {
+            return indexedEntries;
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of pairs which were not stored, and of records of the log which were not loaded when the file
+     * was opened, since the index is full
+     */
+    public long getDroppedEntries() {
+        readWriteLock.readLock().lock();
+        try {
+            return droppedEntries;
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the log to disk and releases the file.
+     */
+    @Override
+    public void close() throws IOException {
+        readWriteLock.writeLock().lock();
+        try {
+            if(!fileChannel.isOpen())
+                return;
+            fileChannel.force(false);
+            fileLock.release();
+            fileChannel.close();
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package it.lockless.psidemoclient.cache;
+
+import it.lockless.psidemoclient.metrics.PsiMetrics;
+import psi.cache.PsiCacheProvider;
+
+import java.util.Optional;
+
+/**
+ * PsiCacheProvider which records the latency of each get and put of another PsiCacheProvider in the PsiMetrics
+ * (timers cache_get and cache_put). Since a latency is recorded for every encryption, it should only be used when
+ * the metrics are exported.
+ */
+public class MeteredPsiCacheProvider implements PsiCacheProvider {
+
+    private final PsiCacheProvider psiCacheProvider;
+
+    private final PsiMetrics psiMetrics;
+
+    /**
+     * @param psiCacheProvider  the cache provider whose operations are timed
+     * @param psiMetrics        the metrics on which the latencies are recorded
+     */
+    public MeteredPsiCacheProvider(PsiCacheProvider psiCacheProvider, PsiMetrics psiMetrics) {
+        this.psiCacheProvider = psiCacheProvider;
+        this.psiMetrics = psiMetrics;
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        long start = System.nanoTime();
+        try {
+            return psiCacheProvider.get(key);
+        } finally {
+            psiMetrics.record(PsiMetrics.CACHE_GET, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void put(String key, String value) {
+        long start = System.nanoTime();
+        try {
+            psiCacheProvider.put(key, value);
+        } finally {
+            psiMetrics.record(PsiMetrics.CACHE_PUT, System.nanoTime() - start);
+        }
+    }
+}
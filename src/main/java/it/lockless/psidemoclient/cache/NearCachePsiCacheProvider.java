@@ -0,0 +1,110 @@
+package it.lockless.psidemoclient.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import psi.cache.PsiCacheProvider;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier PsiCacheProvider: an in-process near cache is placed in front of another (remote) PsiCacheProvider,
+ * such that hot keys are served from the heap and only the lookups that miss the near cache reach the remote cache.
+ * The values found in the remote cache and the written pairs are added to the near cache.
+ * The near cache can be shared by multiple instances of this class (e.g., by consecutive sessions in the same process),
+ * while the hit and miss counters are specific to each instance.
+ */
+public class NearCachePsiCacheProvider implements PsiCacheProvider {
+
+    private final Cache<String, String> nearCache;
+
+    private final PsiCacheProvider remoteCacheProvider;
+
+    private final AtomicLong nearCacheHit = new AtomicLong();
+
+    private final AtomicLong nearCacheMiss = new AtomicLong();
+
+    private final AtomicLong remoteCacheHit = new AtomicLong();
+
+    private final AtomicLong remoteCacheMiss = new AtomicLong();
+
+    /**
+     * @param nearCache             the in-process cache, see newNearCache
+     * @param remoteCacheProvider   the cache on which the lookups that miss the near cache are performed
+     */
+    public NearCachePsiCacheProvider(Cache<String, String> nearCache, PsiCacheProvider remoteCacheProvider) {
+        this.nearCache = nearCache;
+        this.remoteCacheProvider = remoteCacheProvider;
+    }
+
+    /**
+     * Creates a near cache bounded by the estimated size of its pairs.
+     *
+     * @param maxBytes      max estimated size of the cached keys and values. When exceeded, the least recently
+     *                      used pairs are evicted
+     * @param ttlSeconds    if greater than 0, the pairs are evicted after this number of seconds since they were written
+     * @return the near cache to be passed to the constructor
+     */
+    public static Cache<String, String> newNearCache(long maxBytes, long ttlSeconds) {
+        CacheBuilder<String, String> cacheBuilder = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                // Java strings take about 2 bytes per char, plus a fixed overhead for the objects and the cache entry
+                .weigher((String key, String value) -> 2 * (key.length() + value.length()) + 128);
+        if(ttlSeconds > 0)
+            cacheBuilder.expireAfterWrite(ttlSeconds, TimeUnit.SECONDS);
+        return cacheBuilder.build();
+    }
+
+    /**
+     * Retrieve the value linked to a given key, first from the near cache and then from the remote cache.
+     *
+     * @param key   key corresponding to the value to be retrieved.
+     *
+     * @return an Optional containing the cached value if present, Optional.empty() otherwise.
+     */
+    @Override
+    public Optional<String> get(String key) {
+        String nearValue = nearCache.getIfPresent(key);
+        if(nearValue != null) {
+            nearCacheHit.incrementAndGet();
+            return Optional.of(nearValue);
+        }
+        nearCacheMiss.incrementAndGet();
+
+        Optional<String> remoteValue = remoteCacheProvider.get(key);
+        if(remoteValue.isPresent()) {
+            remoteCacheHit.incrementAndGet();
+            nearCache.put(key, remoteValue.get());
+        } else remoteCacheMiss.incrementAndGet();
+        return remoteValue;
+    }
+
+    /**
+     * Stores the pair <key, value> into the remote cache and the near cache.
+     *
+     * @param key       key corresponding to the value to be stored.
+     * @param value     value to be stored.
+     */
+    @Override
+    public void put(String key, String value) {
+        remoteCacheProvider.put(key, value);
+        nearCache.put(key, value);
+    }
+
+    public long getNearCacheHit() {
+        return nearCacheHit.get();
+    }
+
+    public long getNearCacheMiss() {
+        return nearCacheMiss.get();
+    }
+
+    public long getRemoteCacheHit() {
+        return remoteCacheHit.get();
+    }
+
+    public long getRemoteCacheMiss() {
+        return remoteCacheMiss.get();
+    }
+}
@@ -0,0 +1,135 @@
+package it.lockless.psidemoclient.cache;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the keys stored in the redis cache and their memory usage, grouped by namespace.
+ * The keys written with CompactCacheCodec are grouped by their namespace (e.g., psi:BS:2048:), while all the keys
+ * written with CacheCodec.PLAIN are grouped in the PLAIN_NAMESPACE.
+ * The keys are enumerated with SCAN and their memory is measured with pipelined MEMORY USAGE commands, thus the
+ * statistics are approximate if the cache is modified in the meanwhile.
+ */
+public class RedisCacheStatistics {
+
+    public static final String PLAIN_NAMESPACE = "(plain)";
+
+    private static final int SCAN_COUNT = 1000;
+
+    private final Map<String, long[]> namespaces = new TreeMap<>();
+
+    private RedisCacheStatistics() {
+    }
+
+    /**
+     * Scans all the keys of the redis databases.
+     *
+     * @param nodes connections towards the redis nodes (e.g., the shards of the cache or the master nodes of a cluster)
+     * @return the statistics of the keys of all the nodes grouped by namespace
+     */
+    public static RedisCacheStatistics collect(List<Jedis> nodes) {
+        RedisCacheStatistics redisCacheStatistics = new RedisCacheStatistics();
+        for(Jedis jedis : nodes)
+            redisCacheStatistics.scan(jedis);
+        return redisCacheStatistics;
+    }
+
+    /**
+     * Lists the master nodes of a Redis Cluster, given the output of CLUSTER NODES run on one of its nodes.
+     * The replicas are skipped, since they store a copy of the keys of their master, as well as the nodes
+     * flagged as failed or without address.
+     *
+     * @param clusterNodes the output of CLUSTER NODES
+     * @param seedHost the host of the node which returned clusterNodes, used for the nodes that do not report their ip
+     * @return the addresses of the master nodes
+     */
+    public static List<HostAndPort> parseClusterMasters(String clusterNodes, String seedHost) {
+        List<HostAndPort> masters = new ArrayList<>();
+        for(String line : clusterNodes.split("\r?\n")) {
+            // <id> <ip:port@cport[,hostname]> <flags> <master> ...
+            String[] fields = line.trim().split(" ");
+            if(fields.length < 3)
+                continue;
+            List<String> flags = Arrays.asList(fields[2].split(","));
+            if(!flags.contains("master") || flags.contains("fail") || flags.contains("noaddr") || flags.contains("handshake"))
+                continue;
+            String address = fields[1].split("[@,]")[0];
+            int portSeparator = address.lastIndexOf(':');
+            String host = address.substring(0, portSeparator);
+            masters.add(new HostAndPort(host.isEmpty() ? seedHost : host, Integer.parseInt(address.substring(portSeparator + 1))));
+        }
+        return masters;
+    }
+
+    private void scan(Jedis jedis) {
+        ScanParams scanParams = new ScanParams().count(SCAN_COUNT);
+        byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+        do {
+            ScanResult<byte[]> scanResult = jedis.scan(cursor, scanParams);
+            List<byte[]> keys = scanResult.getResult();
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Long>> memoryUsages = new ArrayList<>(keys.size());
+            for(byte[] key : keys)
+                memoryUsages.add(pipeline.memoryUsage(key));
+            pipeline.sync();
+            for(int i = 0; i < keys.size(); i++) {
+                Long memoryUsage = memoryUsages.get(i).get();
+                // The key may have expired or have been removed after the SCAN
+                if(memoryUsage != null)
+                    add(namespaceOf(keys.get(i)), memoryUsage);
+            }
+            cursor = scanResult.getCursorAsBytes();
+        } while(!Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY));
+    }
+
+    /**
+     * @return the namespace of a key written by CompactCacheCodec, or PLAIN_NAMESPACE for any other key
+     */
+    static String namespaceOf(byte[] key) {
+        int namespaceLength = key.length - CompactCacheCodec.KEY_HASH_BYTES;
+        if(namespaceLength < CompactCacheCodec.NAMESPACE_PREFIX.length() || key[namespaceLength - 1] != ':')
+            return PLAIN_NAMESPACE;
+        String namespace = new String(key, 0, namespaceLength, StandardCharsets.UTF_8);
+        return namespace.startsWith(CompactCacheCodec.NAMESPACE_PREFIX) ? namespace : PLAIN_NAMESPACE;
+    }
+
+    private void add(String namespace, long memoryUsage) {
+        long[] statistics = namespaces.computeIfAbsent(namespace, n -> new long[2]);
+        statistics[0]++;
+        statistics[1] += memoryUsage;
+    }
+
+    /**
+     * @return the namespaces found in the cache, sorted
+     */
+    public List<String> getNamespaces() {
+        return new ArrayList<>(namespaces.keySet());
+    }
+
+    /**
+     * @return the number of keys of the namespace
+     */
+    public long getKeyCount(String namespace) {
+        long[] statistics = namespaces.get(namespace);
+        return statistics == null ? 0 : statistics[0];
+    }
+
+    /**
+     * @return the bytes used by the keys of the namespace and their values, as reported by MEMORY USAGE
+     */
+    public long getMemoryUsage(String namespace) {
+        long[] statistics = namespaces.get(namespace);
+        return statistics == null ? 0 : statistics[1];
+    }
+}
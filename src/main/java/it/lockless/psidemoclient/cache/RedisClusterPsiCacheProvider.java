@@ -0,0 +1,65 @@
+package it.lockless.psidemoclient.cache;
+
+import psi.cache.PsiCacheProvider;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.params.SetParams;
+
+import java.io.Closeable;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Multithreaded PsiCacheProvider implementation based on a Redis Cluster. Keys are distributed across the master nodes
+ * by the hash slots of the cluster, and JedisCluster keeps a pool of connections towards each node.
+ */
+public class RedisClusterPsiCacheProvider implements PsiCacheProvider, Closeable {
+
+    private final JedisCluster jedisCluster;
+
+    private final CacheCodec cacheCodec;
+
+    private final SetParams setParams;
+
+    /**
+     * @param nodes         some nodes of the cluster, from which the other nodes are discovered
+     * @param cacheCodec    encoding of the keys and values stored in redis
+     * @param ttlSeconds    if greater than 0, the entries expire after this number of seconds since they were written
+     */
+    public RedisClusterPsiCacheProvider(Set<HostAndPort> nodes, CacheCodec cacheCodec, long ttlSeconds) {
+        this.jedisCluster = new JedisCluster(nodes);
+        this.cacheCodec = cacheCodec;
+        this.setParams = RedisPsiCacheProvider.setParams(ttlSeconds);
+    }
+
+    /**
+     * Retrieve the value linked to a given key.
+     *
+     * @param key   key corresponding to the value to be retrieved.
+     *
+     * @return an Optional containing the cached value if present, Optional.empty() otherwise.
+     */
+    @Override
+    public Optional<String> get(String key) {
+        byte[] cachedResponse = jedisCluster.get(cacheCodec.encodeKey(key));
+        if(cachedResponse == null)
+            return Optional.empty();
+        else return Optional.of(cacheCodec.decodeValue(cachedResponse));
+    }
+
+    /**
+     * Stores the pair <key, value> into the cache. If the key exists, it is not replaced.
+     *
+     * @param key       key corresponding to the value to be stored.
+     * @param value     value to be stored.
+     */
+    @Override
+    public void put(String key, String value) {
+        jedisCluster.set(cacheCodec.encodeKey(key), cacheCodec.encodeValue(value), setParams);
+    }
+
+    @Override
+    public void close() {
+        jedisCluster.close();
+    }
+}
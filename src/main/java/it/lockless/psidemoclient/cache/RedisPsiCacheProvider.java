@@ -3,7 +3,9 @@ package it.lockless.psidemoclient.cache;
 import psi.cache.PsiCacheProvider;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.SetParams;
 
+import java.io.Closeable;
 import java.util.Optional;
 
 /*
@@ -17,13 +19,50 @@ Connect to cli: docker exec -it redis redis-cli
 /**
  * Multithreaded PsiCacheProvider implementation based on redis.
  */
-public class RedisPsiCacheProvider implements PsiCacheProvider {
+public class RedisPsiCacheProvider implements PsiCacheProvider, Closeable {
 
     private final JedisPool jedisPool;
 
+    private final CacheCodec cacheCodec;
+
+    private final SetParams setParams;
+
     public RedisPsiCacheProvider(String host, int port) {
-        this.jedisPool = new JedisPool(host, port);
-        this.jedisPool.getResource().ping();
+        this(host, port, CacheCodec.PLAIN, 0);
+    }
+
+    /**
+     * @param host          host of the redis server
+     * @param port          port of the redis server
+     * @param cacheCodec    encoding of the keys and values stored in redis
+     * @param ttlSeconds    if greater than 0, the entries expire after this number of seconds since they were written
+     */
+    public RedisPsiCacheProvider(String host, int port, CacheCodec cacheCodec, long ttlSeconds) {
+        this(new JedisPool(host, port), cacheCodec, ttlSeconds);
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            jedis.ping();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    RedisPsiCacheProvider(JedisPool jedisPool, CacheCodec cacheCodec, long ttlSeconds) {
+        this.jedisPool = jedisPool;
+        this.cacheCodec = cacheCodec;
+        this.setParams = setParams(ttlSeconds);
+    }
+
+    /**
+     * @param ttlSeconds if greater than 0, the expiration of the written entries
+     * @return the parameters of SET such that the key is only written if it does not exist (NX) and, if ttlSeconds
+     * is greater than 0, expires after ttlSeconds (EX)
+     */
+    static SetParams setParams(long ttlSeconds) {
+        SetParams setParams = SetParams.setParams().nx();
+        if(ttlSeconds > 0)
+            setParams.ex(ttlSeconds);
+        return setParams;
     }
 
     /**
@@ -35,17 +74,18 @@ public class RedisPsiCacheProvider implements PsiCacheProvider {
      */
     @Override
     public Optional<String> get(String key) {
-        String cachedResponse;
+        byte[] cachedResponse;
         Jedis jedis = this.jedisPool.getResource();
-        cachedResponse = jedis.get(key);
+        cachedResponse = jedis.get(cacheCodec.encodeKey(key));
         this.jedisPool.returnResource(jedis);
         if(cachedResponse == null)
             return Optional.empty();
-        else return Optional.of(cachedResponse);
+        else return Optional.of(cacheCodec.decodeValue(cachedResponse));
     }
 
     /**
      * Stores the pair <key, value> into the cache. If the key exists, it is not replaced.
+     * Since the value linked to a key is always the same, concurrent writers of the same key are not an error.
      *
      * @param key       key corresponding to the value to be stored.
      * @param value     value to be stored.
@@ -53,9 +93,15 @@ public class RedisPsiCacheProvider implements PsiCacheProvider {
     @Override
     public void put(String key, String value) {
         Jedis jedis = this.jedisPool.getResource();
-        long response = jedis.setnx(key, value);
+        jedis.set(cacheCodec.encodeKey(key), cacheCodec.encodeValue(value), setParams);
         this.jedisPool.returnResource(jedis);
-        if (response == 0)
-            throw new RedisKeyAlreadyWrittenException();
     }
-}
\ No newline at end of file
+
+    /**
+     * Closes the connections of the pool.
+     */
+    @Override
+    public void close() {
+        jedisPool.close();
+    }
+}
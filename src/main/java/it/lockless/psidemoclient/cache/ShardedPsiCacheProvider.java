@@ -0,0 +1,88 @@
+package it.lockless.psidemoclient.cache;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import psi.cache.PsiCacheProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * PsiCacheProvider which distributes the keys across multiple shards (e.g., a RedisPsiCacheProvider for each redis node)
+ * by client-side consistent hashing, such that the cache throughput scales with the number of shards.
+ * Each shard is placed on a hash ring at VIRTUAL_NODES positions derived from its name, and a key is stored on the
+ * shard that follows the hash of the key on the ring. Thus, adding or removing a shard only moves about 1/n of the keys,
+ * and the placement does not depend on the order in which the shards are listed.
+ */
+public class ShardedPsiCacheProvider implements PsiCacheProvider {
+
+    private static final int VIRTUAL_NODES = 160;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final List<PsiCacheProvider> shards;
+
+    private final NavigableMap<Long, PsiCacheProvider> ring = new TreeMap<>();
+
+    /**
+     * @param shards the shards, indexed by a unique name (e.g., host:port)
+     */
+    public ShardedPsiCacheProvider(Map<String, ? extends PsiCacheProvider> shards) {
+        if(shards.isEmpty())
+            throw new IllegalArgumentException("At least one shard is required");
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards.values()));
+        for(Map.Entry<String, ? extends PsiCacheProvider> shard : shards.entrySet()) {
+            for(int virtualNode = 0; virtualNode < VIRTUAL_NODES; virtualNode++)
+                ring.put(hash(shard.getKey() + "#" + virtualNode), shard.getValue());
+        }
+    }
+
+    private static long hash(String value) {
+        return HASH_FUNCTION.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * @param key a key of the cache
+     * @return the shard on which the key is stored
+     */
+    PsiCacheProvider shardOf(String key) {
+        Map.Entry<Long, PsiCacheProvider> shard = ring.ceilingEntry(hash(key));
+        return shard != null ? shard.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Retrieve the value linked to a given key from the shard of the key.
+     *
+     * @param key   key corresponding to the value to be retrieved.
+     *
+     * @return an Optional containing the cached value if present, Optional.empty() otherwise.
+     */
+    @Override
+    public Optional<String> get(String key) {
+        return shardOf(key).get(key);
+    }
+
+    /**
+     * Stores the pair <key, value> into the shard of the key.
+     *
+     * @param key       key corresponding to the value to be stored.
+     * @param value     value to be stored.
+     */
+    @Override
+    public void put(String key, String value) {
+        shardOf(key).put(key, value);
+    }
+
+    /**
+     * @return the shards of the cache
+     */
+    public List<PsiCacheProvider> getShards() {
+        return shards;
+    }
+}
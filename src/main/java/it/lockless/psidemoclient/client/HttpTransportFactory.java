@@ -0,0 +1,76 @@
+package it.lockless.psidemoclient.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the transport layer (ClientHttpRequestFactory) used by the RestTemplate of PsiServerApi.
+ */
+public class HttpTransportFactory {
+
+    public enum HttpTransport {
+        // A new HttpURLConnection for each request (default RestTemplate behavior)
+        SIMPLE,
+        // Apache HttpClient with a pool of keep-alive connections
+        POOLED
+    }
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    // Connections idle for longer than this time are validated before being reused
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2_000;
+
+    private HttpTransportFactory() {
+    }
+
+    /**
+     * Creates the ClientHttpRequestFactory corresponding to the input transport.
+     *
+     * @param httpTransport     the selected transport
+     * @param maxConnections    max number of connections kept open towards the server. Should not be lower than the
+     *                          number of concurrent requests (e.g., in-flight pages and chunks). Ignored by SIMPLE
+     * @param compression       whether to request gzip/deflate compressed responses. Ignored by SIMPLE
+     * @return the ClientHttpRequestFactory that should be passed to PsiServerApi
+     */
+    public static ClientHttpRequestFactory create(HttpTransport httpTransport, int maxConnections, boolean compression) {
+        switch(httpTransport) {
+            case SIMPLE:
+                return new SimpleClientHttpRequestFactory();
+            case POOLED:
+                return createPooled(maxConnections, compression);
+            default:
+                throw new IllegalArgumentException("Unsupported http transport " + httpTransport);
+        }
+    }
+
+    private static ClientHttpRequestFactory createPooled(int maxConnections, boolean compression) {
+        // The requests usually target a single server, thus the max number of connections per route matches the total.
+        // The jobs of the batch command, which can target different servers, share the total
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+                .setConnectionRequestTimeout(0)
+                .build();
+
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .useSystemProperties();
+        // By default, HttpClient sends Accept-Encoding: gzip,deflate and transparently decompresses the responses
+        if(!compression)
+            httpClientBuilder.disableContentCompression();
+        CloseableHttpClient httpClient = httpClientBuilder.build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+}
@@ -0,0 +1,89 @@
+package it.lockless.psidemoclient.client;
+
+import com.google.common.io.CountingInputStream;
+import it.lockless.psidemoclient.metrics.PsiMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/**
+ * Counts the bytes of the bodies sent to and received from the server (counters http_bytes_sent and
+ * http_bytes_received). Compressed responses are counted after their decompression by the transport.
+ * The bytes of a response are counted when the response is closed, thus also when its body is streamed.
+ */
+class MeteringClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Supplier<PsiMetrics> psiMetricsSupplier;
+
+    /**
+     * @param psiMetricsSupplier supplier of the metrics on which the bytes of each request are counted. If it
+     *                           returns null, the request is not counted
+     */
+    MeteringClientHttpRequestInterceptor(Supplier<PsiMetrics> psiMetricsSupplier) {
+        this.psiMetricsSupplier = psiMetricsSupplier;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        PsiMetrics psiMetrics = psiMetricsSupplier.get();
+        if(psiMetrics == null)
+            return execution.execute(request, body);
+        psiMetrics.increment(PsiMetrics.HTTP_BYTES_SENT, body.length);
+        return new CountingClientHttpResponse(execution.execute(request, body), psiMetrics);
+    }
+
+    private static class CountingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final PsiMetrics psiMetrics;
+
+        private CountingInputStream body;
+
+        private CountingClientHttpResponse(ClientHttpResponse response, PsiMetrics psiMetrics) {
+            this.response = response;
+            this.psiMetrics = psiMetrics;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if(body == null)
+                body = new CountingInputStream(response.getBody());
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if(body != null)
+                psiMetrics.increment(PsiMetrics.HTTP_BYTES_RECEIVED, body.getCount());
+            response.close();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package it.lockless.psidemoclient.client;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides the page and size of the next GET /psi/{sessionId}/serverSet request.
+ * The page size starts from initialPageSize and, after each downloaded page, grows up to twice or shrinks to at most
+ * half of its value (within [minPageSize, maxPageSize]) based on the observed per-page latency, the payload size of the
+ * page and the heap headroom.
+ * Since the API is paginated by page index, a page of size s starts at offset page * s. Thus, the new size should divide
+ * the offset of the next request, such that no entry is skipped or downloaded twice: the size becomes the largest
+ * divisor of the offset in the allowed range, if any (e.g., with an odd size, halving is not possible but shrinking is).
+ * If minPageSize equals maxPageSize, the controller simply enumerates the pages of fixed size.
+ * This class is thread-safe.
+ */
+public class PageSizeController {
+
+    // Pages downloaded faster than this are considered too small
+    private static final long GROW_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    // Pages downloaded slower than this are considered too large
+    private static final long SHRINK_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static final long MAX_PAGE_PAYLOAD_BYTES = 64L << 20;
+
+    // Fraction of the max heap that should be free to grow the page size
+    private static final double GROW_HEAP_HEADROOM = 0.5;
+
+    // If the free fraction of the max heap is lower than this, the page size is reduced
+    private static final double SHRINK_HEAP_HEADROOM = 0.2;
+
+    private final int minPageSize;
+
+    private final int maxPageSize;
+
+    private final long totalEntries;
+
+    private int pageSize;
+
+    private long offset;
+
+    private int requestedPages;
+
+    private int smallestPageSize;
+
+    private int largestPageSize;
+
+    /**
+     * @param initialPageSize   size of the first page, which is assumed to be already requested
+     * @param minPageSize       lower bound of the page size
+     * @param maxPageSize       upper bound of the page size
+     * @param totalEntries      total number of entries of the server dataset
+     */
+    public PageSizeController(int initialPageSize, int minPageSize, int maxPageSize, long totalEntries) {
+        if(minPageSize < 1 || minPageSize > initialPageSize || initialPageSize > maxPageSize)
+            throw new IllegalArgumentException("The page sizes should satisfy 0 < minPageSize <= initialPageSize <= maxPageSize");
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+        this.totalEntries = totalEntries;
+        this.pageSize = initialPageSize;
+        this.offset = initialPageSize;
+        this.requestedPages = 1;
+        this.smallestPageSize = initialPageSize;
+        this.largestPageSize = initialPageSize;
+    }
+
+    /**
+     * Creates a controller that enumerates totalPages pages of fixed size, the first of which is assumed to be already
+     * requested.
+     */
+    public static PageSizeController fixed(int pageSize, int totalPages) {
+        return new PageSizeController(pageSize, pageSize, pageSize, (long) pageSize * totalPages);
+    }
+
+    /**
+     * Creates a controller that enumerates pages of fixed size without an upper bound, the first of which is assumed to
+     * be already requested. Used when the server does not provide the number of pages, such that the caller stops
+     * requesting pages when the last one is received.
+     */
+    public static PageSizeController unbounded(int pageSize) {
+        return new PageSizeController(pageSize, pageSize, pageSize, Long.MAX_VALUE);
+    }
+
+    public synchronized boolean hasNext() {
+        return offset < totalEntries;
+    }
+
+    /**
+     * @return the page index (first element) and page size (second element) of the next request
+     */
+    public synchronized int[] next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+        int[] pageRequest = new int[]{(int) (offset / pageSize), pageSize};
+        offset += pageSize;
+        requestedPages++;
+        smallestPageSize = Math.min(smallestPageSize, pageSize);
+        largestPageSize = Math.max(largestPageSize, pageSize);
+        return pageRequest;
+    }
+
+    /**
+     * Updates the page size based on the statistics of a downloaded page.
+     *
+     * @param size          size of the downloaded page
+     * @param latencyNanos  time required to download (and, if streamed, process) the page
+     * @param payloadBytes  estimate of the size of the content of the page
+     */
+    public synchronized void onPageDownloaded(int size, long latencyNanos, long payloadBytes) {
+        if(minPageSize == maxPageSize)
+            return;
+        double heapHeadroom = heapHeadroom();
+        boolean shrink = latencyNanos > SHRINK_LATENCY_NANOS || payloadBytes > MAX_PAGE_PAYLOAD_BYTES
+                || heapHeadroom < SHRINK_HEAP_HEADROOM;
+        boolean grow = latencyNanos < GROW_LATENCY_NANOS && payloadBytes * 2 <= MAX_PAGE_PAYLOAD_BYTES
+                && heapHeadroom > GROW_HEAP_HEADROOM;
+
+        // Feedback refers to a page of the given size, which may differ from the current one if multiple
+        // pages are in flight. Only react to pages of the current size to avoid changing the size twice
+        if(size != pageSize)
+            return;
+        if(shrink)
+            pageSize = largestOffsetDivisor(minPageSize, pageSize / 2, pageSize);
+        else if(grow)
+            pageSize = largestOffsetDivisor(pageSize + 1, (int) Math.min((long) pageSize * 2, maxPageSize), pageSize);
+    }
+
+    /**
+     * @return the largest size in [lowerBound, upperBound] which divides the offset of the next request, or
+     * currentSize if there is none
+     */
+    private int largestOffsetDivisor(int lowerBound, int upperBound, int currentSize) {
+        for(int size = upperBound; size >= lowerBound; size--) {
+            if(offset % size == 0)
+                return size;
+        }
+        return currentSize;
+    }
+
+    private static double heapHeadroom() {
+        Runtime runtime = Runtime.getRuntime();
+        long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+        return 1.0 - (double) usedMemory / runtime.maxMemory();
+    }
+
+    public synchronized int getRequestedPages() {
+        return requestedPages;
+    }
+
+    public synchronized int getPageSize() {
+        return pageSize;
+    }
+
+    public synchronized int getSmallestPageSize() {
+        return smallestPageSize;
+    }
+
+    public synchronized int getLargestPageSize() {
+        return largestPageSize;
+    }
+}
@@ -0,0 +1,121 @@
+package it.lockless.psidemoclient.client;
+
+import it.lockless.psidemoclient.dto.PsiDatasetMapDTO;
+import it.lockless.psidemoclient.metrics.PsiMetrics;
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+import psi.client.PsiClient;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Encrypts the client dataset chunk by chunk and sends each encrypted chunk to the server with its own
+ * POST /psi/{sessionId}/clientSet call. The reply of each call (double encrypted chunk) is loaded into the
+ * PsiClient as soon as it arrives.
+ * Encryption runs on the calling thread (the psi-sdk manages its own parallelism), while up to maxInFlightChunks
+ * uploads run in background on the input executor. Thus, the memory required by this process is bounded by the
+ * chunk size rather than by the size of the client dataset.
+ */
+public class PsiClientSetUploader {
+
+    private final PsiServerApi psiServerApi;
+
+    private final PsiClient psiClient;
+
+    private final Long sessionId;
+
+    private final int maxInFlightChunks;
+
+    private final ExecutorService executorService;
+
+    private final PsiMetrics psiMetrics;
+
+    /**
+     * @param psiServerApi      psiServerApi object which performs the API calls towards the server
+     * @param psiClient         the PsiClient of the current session
+     * @param sessionId         the session identifier
+     * @param maxInFlightChunks max number of chunks uploaded concurrently. If lower than 1, chunks are uploaded
+     *                          sequentially on the calling thread and the executor is not used
+     * @param executorService   executor on which the uploads are run. Can be null if maxInFlightChunks is lower than 1
+     */
+    public PsiClientSetUploader(PsiServerApi psiServerApi, PsiClient psiClient, Long sessionId, int maxInFlightChunks, ExecutorService executorService) {
+        this(psiServerApi, psiClient, sessionId, maxInFlightChunks, executorService, new PsiMetrics());
+    }
+
+    /**
+     * @param psiServerApi      psiServerApi object which performs the API calls towards the server
+     * @param psiClient         the PsiClient of the current session
+     * @param sessionId         the session identifier
+     * @param maxInFlightChunks max number of chunks uploaded concurrently. If lower than 1, chunks are uploaded
+     *                          sequentially on the calling thread and the executor is not used
+     * @param executorService   executor on which the uploads are run. Can be null if maxInFlightChunks is lower than 1
+     * @param psiMetrics        metrics on which the encryption and loading time of each chunk is recorded
+     */
+    public PsiClientSetUploader(PsiServerApi psiServerApi, PsiClient psiClient, Long sessionId, int maxInFlightChunks, ExecutorService executorService,
+                                PsiMetrics psiMetrics) {
+        this.psiServerApi = psiServerApi;
+        this.psiClient = psiClient;
+        this.sessionId = sessionId;
+        this.maxInFlightChunks = maxInFlightChunks;
+        this.executorService = executorService;
+        this.psiMetrics = psiMetrics;
+    }
+
+    /**
+     * Encrypts and uploads all the chunks returned by the input iterator. Returns when the double encrypted
+     * entries of every chunk have been loaded into the PsiClient.
+     *
+     * @param clientDatasetChunks iterator over the chunks of the client dataset
+     * @return the number of uploaded chunks
+     */
+    public int uploadAll(Iterator<Set<String>> clientDatasetChunks) {
+        Deque<Future<?>> inFlightChunks = new ArrayDeque<>();
+        int uploadedChunks = 0;
+        try {
+            while(clientDatasetChunks.hasNext()) {
+                Set<String> chunk = clientDatasetChunks.next();
+                Map<Long, String> encryptedChunk = psiMetrics.time(PsiMetrics.CLIENT_ENCRYPTION, () -> psiClient.loadAndEncryptClientDataset(chunk));
+                psiMetrics.increment(PsiMetrics.CLIENT_SET_ENTRIES, encryptedChunk.size());
+                uploadedChunks++;
+                if(maxInFlightChunks < 1) {
+                    uploadChunk(encryptedChunk);
+                    continue;
+                }
+                // Wait for the oldest upload to complete before starting a new one to bound memory usage
+                if(inFlightChunks.size() >= maxInFlightChunks)
+                    waitForUpload(inFlightChunks.poll());
+                inFlightChunks.add(executorService.submit(() -> uploadChunk(encryptedChunk)));
+            }
+            while(!inFlightChunks.isEmpty())
+                waitForUpload(inFlightChunks.poll());
+        } finally {
+            for(Future<?> future : inFlightChunks)
+                future.cancel(true);
+        }
+        return uploadedChunks;
+    }
+
+    private void uploadChunk(Map<Long, String> encryptedChunk) {
+        PsiDatasetMapDTO doubleEncryptedMapWrapped = psiServerApi.postPsiClientSet(sessionId, new PsiDatasetMapDTO(encryptedChunk));
+        psiMetrics.time(PsiMetrics.CLIENT_SET_LOAD, () -> psiClient.loadDoubleEncryptedClientDataset(doubleEncryptedMapWrapped.getContent()));
+    }
+
+    private static void waitForUpload(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PsiDemoClientRuntimeException("Interrupted while uploading the client dataset");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new PsiDemoClientRuntimeException("Error uploading a chunk of the client dataset: " + e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package it.lockless.psidemoclient.client;
+
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+import psi.client.PsiClient;
+import psi.model.PsiPhaseStatistics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pre-computes the encryptions of the client dataset into the cache of the PsiClient, without sending them to the
+ * server. Since the cached encryptions only depend on the keys, a later compute with the same keys (e.g., the same
+ * key description and a server reusing its public key) is mostly served by the cache.
+ * Each chunk is encrypted by a new PsiClient, such that the encrypted entries are not retained after the chunk has
+ * been processed, and up to maxInFlightChunks chunks are encrypted concurrently on the input executor.
+ */
+public class PsiClientSetWarmer {
+
+    private final Supplier<PsiClient> psiClientSupplier;
+
+    private final int maxInFlightChunks;
+
+    private final ExecutorService executorService;
+
+    private final AtomicLong encryptedEntries = new AtomicLong();
+
+    private final AtomicLong cacheHit = new AtomicLong();
+
+    private final AtomicLong cacheMiss = new AtomicLong();
+
+    /**
+     * @param psiClientSupplier supplier of PsiClient objects sharing the same keys and cache
+     * @param maxInFlightChunks max number of chunks encrypted concurrently. If lower than 1, chunks are encrypted
+     *                          sequentially on the calling thread and the executor is not used
+     * @param executorService   executor on which the chunks are encrypted. Can be null if maxInFlightChunks is lower than 1
+     */
+    public PsiClientSetWarmer(Supplier<PsiClient> psiClientSupplier, int maxInFlightChunks, ExecutorService executorService) {
+        this.psiClientSupplier = psiClientSupplier;
+        this.maxInFlightChunks = maxInFlightChunks;
+        this.executorService = executorService;
+    }
+
+    /**
+     * Encrypts all the chunks returned by the input iterator. Returns when every chunk has been encrypted.
+     *
+     * @param clientDatasetChunks iterator over the chunks of the client dataset
+     * @return the number of encrypted chunks
+     */
+    public int warmAll(Iterator<Set<String>> clientDatasetChunks) {
+        Deque<Future<?>> inFlightChunks = new ArrayDeque<>();
+        int encryptedChunks = 0;
+        try {
+            while(clientDatasetChunks.hasNext()) {
+                Set<String> chunk = clientDatasetChunks.next();
+                encryptedChunks++;
+                if(maxInFlightChunks < 1) {
+                    encryptChunk(chunk);
+                    continue;
+                }
+                // Wait for the oldest chunk to be encrypted before reading a new one to bound memory usage
+                if(inFlightChunks.size() >= maxInFlightChunks)
+                    waitForChunk(inFlightChunks.poll());
+                inFlightChunks.add(executorService.submit(() -> encryptChunk(chunk)));
+            }
+            while(!inFlightChunks.isEmpty())
+                waitForChunk(inFlightChunks.poll());
+        } finally {
+            for(Future<?> future : inFlightChunks)
+                future.cancel(true);
+        }
+        return encryptedChunks;
+    }
+
+    private void encryptChunk(Set<String> chunk) {
+        PsiClient psiClient = psiClientSupplier.get();
+        encryptedEntries.addAndGet(psiClient.loadAndEncryptClientDataset(chunk).size());
+        for(PsiPhaseStatistics psiPhaseStatistics : psiClient.getStatisticList()) {
+            cacheHit.addAndGet(psiPhaseStatistics.getCacheHit());
+            cacheMiss.addAndGet(psiPhaseStatistics.getCacheMiss());
+        }
+    }
+
+    private static void waitForChunk(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PsiDemoClientRuntimeException("Interrupted while encrypting the client dataset");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new PsiDemoClientRuntimeException("Error encrypting a chunk of the client dataset: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * @return the number of entries encrypted so far
+     */
+    public long getEncryptedEntries() {
+        return encryptedEntries.get();
+    }
+
+    /**
+     * @return the number of encryptions found in the cache, which did not need to be computed
+     */
+    public long getCacheHit() {
+        return cacheHit.get();
+    }
+
+    /**
+     * @return the number of encryptions computed and written to the cache
+     */
+    public long getCacheMiss() {
+        return cacheMiss.get();
+    }
+}
@@ -1,18 +1,117 @@
 package it.lockless.psidemoclient.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import it.lockless.psidemoclient.dto.*;
+import it.lockless.psidemoclient.metrics.PsiMetrics;
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.client.*;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 public class PsiServerApi {
 
     private final String psiServerBaseUrl;
 
     private final RestTemplate restTemplate;
 
+    private final WireFormat wireFormat;
+
+    // Set when the server rejects the preferred wire format, such that the following requests directly use JSON
+    private volatile boolean wireFormatRejected;
+
+    // Metrics of the current execution, null if not collected
+    private volatile PsiMetrics psiMetrics;
+
+    // If false, failed API calls throw a PsiDemoClientRuntimeException rather than terminating the process
+    private volatile boolean exitOnError = true;
+
     public PsiServerApi(String psiServerBaseUrl){
         this.psiServerBaseUrl = psiServerBaseUrl;
         this.restTemplate = new RestTemplate();
+        this.wireFormat = WireFormat.JSON;
+    }
+
+    /**
+     * Creates a PsiServerApi whose API calls are performed through the input transport layer.
+     * The transport should support concurrent requests, since pages of the server dataset and chunks of the client
+     * dataset may be transferred concurrently (see HttpTransportFactory).
+     *
+     * @param psiServerBaseUrl URL of the server offering the PSI server API
+     * @param clientHttpRequestFactory the transport layer used by the underlying RestTemplate
+     */
+    public PsiServerApi(String psiServerBaseUrl, ClientHttpRequestFactory clientHttpRequestFactory){
+        this(psiServerBaseUrl, clientHttpRequestFactory, WireFormat.JSON);
+    }
+
+    /**
+     * Creates a PsiServerApi which exchanges the encrypted datasets with the server in the input wire format.
+     * The wire format is negotiated with the server: the server dataset is requested accepting both the preferred
+     * format and JSON, and if the server rejects a client dataset in the preferred format (415 Unsupported Media Type),
+     * the request is repeated in JSON, which is then used for the rest of the session.
+     *
+     * @param psiServerBaseUrl URL of the server offering the PSI server API
+     * @param clientHttpRequestFactory the transport layer used by the underlying RestTemplate
+     * @param wireFormat the preferred format of the encrypted datasets
+     */
+    public PsiServerApi(String psiServerBaseUrl, ClientHttpRequestFactory clientHttpRequestFactory, WireFormat wireFormat){
+        this.psiServerBaseUrl = psiServerBaseUrl;
+        this.restTemplate = new RestTemplate(clientHttpRequestFactory);
+        this.wireFormat = wireFormat;
+        if(wireFormat == WireFormat.SMILE)
+            this.restTemplate.getMessageConverters().add(0, new MappingJackson2SmileHttpMessageConverter());
+    }
+
+    /**
+     * @return the wire format currently used for the encrypted datasets, which is JSON if the server rejected
+     * the preferred one
+     */
+    public WireFormat getNegotiatedWireFormat(){
+        return wireFormatRejected ? WireFormat.JSON : wireFormat;
+    }
+
+    /**
+     * Sets the metrics on which the following API calls record their latency (timers client_set_upload and
+     * server_set_page_download) and the bytes exchanged with the server.
+     * Should not be called concurrently with API calls.
+     *
+     * @param psiMetrics the metrics of the current execution. If null, the metrics are no longer collected
+     */
+    public void setPsiMetrics(PsiMetrics psiMetrics){
+        if(psiMetrics != null && this.restTemplate.getInterceptors().stream().noneMatch(MeteringClientHttpRequestInterceptor.class::isInstance))
+            this.restTemplate.getInterceptors().add(new MeteringClientHttpRequestInterceptor(() -> this.psiMetrics));
+        this.psiMetrics = psiMetrics;
+    }
+
+    /**
+     * By default, a failed API call prints the error and terminates the process with exit code 1, which is the
+     * expected behavior of a single CLI execution. Long-running processes (e.g., the daemon command) should disable
+     * it, such that a failed call only fails the current job.
+     *
+     * @param exitOnError if false, failed API calls throw a PsiDemoClientRuntimeException describing the error
+     */
+    public void setExitOnError(boolean exitOnError){
+        this.exitOnError = exitOnError;
+    }
+
+    private <T> T timed(String timer, Supplier<T> apiCall){
+        PsiMetrics currentPsiMetrics = psiMetrics;
+        return currentPsiMetrics == null ? apiCall.get() : currentPsiMetrics.time(timer, apiCall);
+    }
+
+    private HttpHeaders datasetRequestHeaders(WireFormat requestWireFormat){
+        HttpHeaders requestHeaders = new HttpHeaders();
+        if(requestWireFormat == WireFormat.JSON)
+            requestHeaders.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        else requestHeaders.setAccept(Arrays.asList(requestWireFormat.getMediaType(), MediaType.APPLICATION_JSON));
+        return requestHeaders;
     }
 
     /**
@@ -22,22 +121,26 @@ public class PsiServerApi {
      */
     private void handleRestClientException(RestClientException e){
         String errorMessageRadix = "Status code: ";
+        String errorMessage;
         if(e instanceof HttpClientErrorException){
             HttpStatus httpStatus = ((HttpClientErrorException) e).getStatusCode();
             if(httpStatus.equals((HttpStatus.REQUEST_TIMEOUT)))
-                System.err.println(errorMessageRadix + HttpStatus.REQUEST_TIMEOUT+
-                        ". The session has expired. You should start a new session to compute the Private Set Intersection");
-            else System.err.println(errorMessageRadix + e.getMessage());
+                errorMessage = errorMessageRadix + HttpStatus.REQUEST_TIMEOUT+
+                        ". The session has expired. You should start a new session to compute the Private Set Intersection";
+            else errorMessage = errorMessageRadix + e.getMessage();
         } else if(e instanceof HttpServerErrorException){
-            System.err.println(errorMessageRadix + e.getMessage());
+            errorMessage = errorMessageRadix + e.getMessage();
         }
         else if(e instanceof ResourceAccessException){
-            System.err.println("Cannot connect to the server. Please verify that the url " + this.psiServerBaseUrl + " is correct");
+            errorMessage = "Cannot connect to the server. Please verify that the url " + this.psiServerBaseUrl + " is correct";
         }
         else{
-            System.err.println("Unexpected error in the communication with the server. Error Message: " + e.getMessage());
+            errorMessage = "Unexpected error in the communication with the server. Error Message: " + e.getMessage();
         }
-        System.exit(1);
+        System.err.println(errorMessage);
+        if(exitOnError)
+            System.exit(1);
+        throw new PsiDemoClientRuntimeException(errorMessage);
     }
 
     /**
@@ -68,9 +171,26 @@ public class PsiServerApi {
      * PsiClient object and the session identifier (sessionId).
      */
     public PsiClientSessionDTO postPsi(PsiAlgorithmParameterDTO psiAlgorithmParameterDTO){
+        return postPsi(psiAlgorithmParameterDTO, null);
+    }
+
+    /**
+     * Calls POST /psi to initialize a new PSI session, declaring the creation date of the Bloom Filter already
+     * owned by the client with the If-Modified-Since header. If the Bloom Filter of the server is not newer,
+     * the server can omit the serialized Bloom Filter from the returned BloomFilterDTO (keeping its creation date).
+     * Servers which ignore the header always send the serialized Bloom Filter.
+     *
+     * @param psiAlgorithmParameterDTO the algorithm and key size of the session
+     * @param bloomFilterCreationDate creation date of the Bloom Filter owned by the client. Can be null
+     * @return PsiClientSessionDTO object which contains parameters (e.g., public key) needed to create a
+     * PsiClient object and the session identifier (sessionId).
+     */
+    public PsiClientSessionDTO postPsi(PsiAlgorithmParameterDTO psiAlgorithmParameterDTO, Instant bloomFilterCreationDate){
         String url = psiServerBaseUrl + "/psi";
         HttpHeaders requestHeaders = new HttpHeaders();
         requestHeaders.setContentType(MediaType.APPLICATION_JSON);
+        if(bloomFilterCreationDate != null)
+            requestHeaders.setIfModifiedSince(bloomFilterCreationDate);
         HttpEntity<PsiAlgorithmParameterDTO> requestEntity = new HttpEntity<>(psiAlgorithmParameterDTO, requestHeaders);
         try{
             return restTemplate.exchange(
@@ -95,14 +215,24 @@ public class PsiServerApi {
      */
     public PsiDatasetMapDTO postPsiClientSet(Long sessionId, PsiDatasetMapDTO psiDatasetMapDTO){
         String url = psiServerBaseUrl + "/psi/"+sessionId+"/clientSet";
-        HttpHeaders requestHeaders = new HttpHeaders();
+        WireFormat requestWireFormat = getNegotiatedWireFormat();
+        HttpHeaders requestHeaders = datasetRequestHeaders(requestWireFormat);
+        requestHeaders.setContentType(requestWireFormat.getMediaType());
         HttpEntity<PsiDatasetMapDTO> requestEntity = new HttpEntity<>(psiDatasetMapDTO, requestHeaders);
         try{
-            return restTemplate.exchange(
+            return timed(PsiMetrics.CLIENT_SET_UPLOAD, () -> restTemplate.exchange(
                     url,
                     HttpMethod.POST,
                     requestEntity,
-                    PsiDatasetMapDTO.class).getBody();
+                    PsiDatasetMapDTO.class).getBody());
+        } catch (HttpClientErrorException.UnsupportedMediaType e){
+            if(requestWireFormat == WireFormat.JSON) {
+                handleRestClientException(e);
+                return null;
+            }
+            // The server does not support the preferred wire format, fall back to JSON
+            wireFormatRejected = true;
+            return postPsiClientSet(sessionId, psiDatasetMapDTO);
         } catch (RestClientException e){
             handleRestClientException(e);
             return null;
@@ -122,14 +252,50 @@ public class PsiServerApi {
      */
     public PsiServerDatasetPageDTO getPsiServerSetPage(Long sessionId, int page, int size){
         String url = psiServerBaseUrl + "/psi/"+sessionId+"/serverSet?page="+page+"&size="+size;
-        HttpHeaders requestHeaders = new HttpHeaders();
+        HttpHeaders requestHeaders = datasetRequestHeaders(getNegotiatedWireFormat());
         HttpEntity<String> requestEntity = new HttpEntity<>(requestHeaders);
         try{
-            return restTemplate.exchange(
+            return timed(PsiMetrics.SERVER_SET_PAGE_DOWNLOAD, () -> restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     requestEntity,
-                    PsiServerDatasetPageDTO.class).getBody();
+                    PsiServerDatasetPageDTO.class).getBody());
+        } catch (RestClientException e){
+            handleRestClientException(e);
+            return null;
+        }
+    }
+
+    /**
+     * Streaming variant of getPsiServerSetPage. Rather than deserializing the whole page, the entries of the page are
+     * parsed while the body is downloaded and passed to the contentConsumer in batches of at most batchSize entries.
+     * The contentConsumer is called on the calling thread. The parser is chosen based on the Content-Type of the response.
+     * Since the entries are processed while downloading, the recorded download latency includes their processing.
+     *
+     * @param sessionId the session identifier.
+     * @param page the requested page.
+     * @param size the number of entries per page.
+     * @param batchSize the max number of entries passed to the contentConsumer at once.
+     * @param contentConsumer the consumer of the entries of the page (e.g., loadAndProcessServerDataset of the PsiClient).
+     * @return Returns a PsiServerDatasetPageDTO containing only the paging metadata of the page (its content is null).
+     */
+    public PsiServerDatasetPageDTO getPsiServerSetPage(Long sessionId, int page, int size, int batchSize, Consumer<Set<String>> contentConsumer){
+        String url = psiServerBaseUrl + "/psi/"+sessionId+"/serverSet?page="+page+"&size="+size;
+        HttpHeaders requestHeaders = datasetRequestHeaders(getNegotiatedWireFormat());
+        try{
+            return timed(PsiMetrics.SERVER_SET_PAGE_DOWNLOAD, () -> restTemplate.execute(
+                    url,
+                    HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(requestHeaders.getAccept()),
+                    response -> {
+                        WireFormat responseWireFormat = WireFormat.fromContentType(response.getHeaders().getContentType());
+                        PsiServerDatasetPageStreamReader streamReader = new PsiServerDatasetPageStreamReader(responseWireFormat.getJsonFactory(), batchSize);
+                        try {
+                            return streamReader.read(response.getBody(), contentConsumer);
+                        } catch (JsonProcessingException e) {
+                            throw new RestClientException("Cannot parse the page of the server dataset: " + e.getOriginalMessage(), e);
+                        }
+                    }));
         } catch (RestClientException e){
             handleRestClientException(e);
             return null;
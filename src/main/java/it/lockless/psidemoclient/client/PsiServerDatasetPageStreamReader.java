@@ -0,0 +1,102 @@
+package it.lockless.psidemoclient.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import it.lockless.psidemoclient.dto.PsiServerDatasetPageDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads a PsiServerDatasetPageDTO token by token from the body of GET /psi/{sessionId}/serverSet.
+ * Rather than materializing the content of the whole page, the entries of the content array are passed to a consumer
+ * in batches of at most batchSize entries as soon as they are parsed.
+ */
+public class PsiServerDatasetPageStreamReader {
+
+    private final JsonFactory jsonFactory;
+
+    private final int batchSize;
+
+    /**
+     * @param jsonFactory   factory of the parser, which depends on the format of the body (e.g., JSON)
+     * @param batchSize     max number of entries passed to the consumer at once
+     */
+    public PsiServerDatasetPageStreamReader(JsonFactory jsonFactory, int batchSize) {
+        if(batchSize < 1)
+            throw new IllegalArgumentException("The batch size should be greater than 0");
+        this.jsonFactory = jsonFactory;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Parses a page of the server dataset.
+     *
+     * @param inputStream       the body of the response
+     * @param contentConsumer   consumer of the batches of entries of the content field
+     * @return the paging metadata of the page. The content field of the returned object is always null
+     * @throws IOException if the body cannot be read or is not a valid PsiServerDatasetPageDTO
+     */
+    public PsiServerDatasetPageDTO read(InputStream inputStream, Consumer<Set<String>> contentConsumer) throws IOException {
+        PsiServerDatasetPageDTO psiServerDatasetPageDTO = new PsiServerDatasetPageDTO();
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Expected an object as body of the server dataset page");
+
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if(valueToken == JsonToken.VALUE_NULL)
+                    continue;
+                switch(fieldName) {
+                    case "page":
+                        psiServerDatasetPageDTO.setPage(parser.getIntValue());
+                        break;
+                    case "size":
+                        psiServerDatasetPageDTO.setSize(parser.getIntValue());
+                        break;
+                    case "entries":
+                        psiServerDatasetPageDTO.setEntries(parser.getIntValue());
+                        break;
+                    case "last":
+                        psiServerDatasetPageDTO.setLast(parser.getBooleanValue());
+                        break;
+                    case "totalPages":
+                        psiServerDatasetPageDTO.setTotalPages(parser.getIntValue());
+                        break;
+                    case "totalEntries":
+                        psiServerDatasetPageDTO.setTotalEntries(parser.getIntValue());
+                        break;
+                    case "content":
+                        readContent(parser, contentConsumer);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return psiServerDatasetPageDTO;
+    }
+
+    private void readContent(JsonParser parser, Consumer<Set<String>> contentConsumer) throws IOException {
+        if(parser.currentToken() != JsonToken.START_ARRAY)
+            throw new IOException("Expected an array as content of the server dataset page");
+
+        Set<String> batch = new HashSet<>();
+        while(parser.nextToken() != JsonToken.END_ARRAY) {
+            if(parser.currentToken() != JsonToken.VALUE_STRING)
+                throw new IOException("Expected only strings in the content of the server dataset page");
+            batch.add(parser.getText());
+            if(batch.size() >= batchSize) {
+                contentConsumer.accept(batch);
+                batch = new HashSet<>();
+            }
+        }
+        if(!batch.isEmpty())
+            contentConsumer.accept(batch);
+    }
+}
@@ -0,0 +1,206 @@
+package it.lockless.psidemoclient.client;
+
+import it.lockless.psidemoclient.dto.PsiServerDatasetPageDTO;
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Downloads all the pages of the encrypted server dataset by calling GET /psi/{sessionId}/serverSet.
+ * The first page is downloaded synchronously to read the totalPages and totalEntries fields. Then, while the caller
+ * processes a page, up to maxInFlightPages subsequent pages are requested in background on the input executor, such
+ * that the HTTP transfer overlaps with the processing of the pages already received.
+ * Pages are always passed to the consumer in order, and at most maxInFlightPages pages are held in memory
+ * in addition to the one being processed.
+ * If streamingBatchSize is greater than 0, pages are not materialized: their entries are parsed while the body of
+ * each page is downloaded and are passed to the consumer in batches of at most streamingBatchSize entries directly
+ * on the threads that download the pages. In this case, the consumer should be thread-safe.
+ * If minPageSize is lower than maxPageSize and the server provides totalEntries, the page size is adapted after each
+ * page by a PageSizeController.
+ */
+public class PsiServerSetPageFetcher {
+
+    private final PsiServerApi psiServerApi;
+
+    private final Long sessionId;
+
+    private final int initialPageSize;
+
+    private final int minPageSize;
+
+    private final int maxPageSize;
+
+    private final int maxInFlightPages;
+
+    private final ExecutorService executorService;
+
+    private final int streamingBatchSize;
+
+    private PageSizeController pageSizeController;
+
+    /**
+     * @param psiServerApi      psiServerApi object which performs the API calls towards the server
+     * @param sessionId         the session identifier
+     * @param initialPageSize   the number of entries of the first page
+     * @param minPageSize       lower bound of the adaptive page size
+     * @param maxPageSize       upper bound of the adaptive page size. If equal to minPageSize, the page size is fixed
+     * @param maxInFlightPages  max number of pages requested in background. If lower than 1, pages are downloaded
+     *                          sequentially on the calling thread and the executor is not used
+     * @param executorService   executor on which the background requests are run. Can be null if maxInFlightPages
+     *                          is lower than 1
+     * @param streamingBatchSize if greater than 0, the entries of each page are streamed to the consumer in batches
+     *                           of at most this size, rather than materializing the whole page
+     */
+    public PsiServerSetPageFetcher(PsiServerApi psiServerApi, Long sessionId, int initialPageSize, int minPageSize, int maxPageSize,
+                                   int maxInFlightPages, ExecutorService executorService, int streamingBatchSize) {
+        this.psiServerApi = psiServerApi;
+        this.sessionId = sessionId;
+        this.initialPageSize = initialPageSize;
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxInFlightPages = maxInFlightPages;
+        this.executorService = executorService;
+        this.streamingBatchSize = streamingBatchSize;
+    }
+
+    /**
+     * Downloads the whole server dataset, passing the entries of each page to the contentConsumer.
+     *
+     * @param contentConsumer consumer of the downloaded entries (e.g., loadAndProcessServerDataset of the PsiClient)
+     * @return the number of downloaded pages
+     */
+    public int fetchAll(Consumer<Set<String>> contentConsumer) {
+        long start = System.nanoTime();
+        long[] firstPagePayloadBytes = new long[1];
+        PsiServerDatasetPageDTO firstPage = requestPage(0, initialPageSize, countingConsumer(contentConsumer, firstPagePayloadBytes));
+        long firstPageLatency = System.nanoTime() - start;
+
+        if(minPageSize < maxPageSize && firstPage.getTotalEntries() != null)
+            pageSizeController = new PageSizeController(initialPageSize, minPageSize, maxPageSize, firstPage.getTotalEntries());
+        else if(firstPage.getTotalPages() != null)
+            pageSizeController = PageSizeController.fixed(initialPageSize, Math.max(firstPage.getTotalPages(), 1));
+        else {
+            // If the server does not provide totalPages, we can only rely on the last field of each page
+            pageSizeController = PageSizeController.unbounded(initialPageSize);
+            return fetchSequentially(firstPage, contentConsumer);
+        }
+        pageSizeController.onPageDownloaded(initialPageSize, firstPageLatency, firstPagePayloadBytes[0] + estimatePayloadBytes(firstPage));
+
+        if(maxInFlightPages < 1) {
+            consumePage(firstPage, contentConsumer);
+            while(pageSizeController.hasNext())
+                consumePage(requestPage(pageSizeController.next(), contentConsumer), contentConsumer);
+            return pageSizeController.getRequestedPages();
+        }
+
+        Deque<Future<PsiServerDatasetPageDTO>> inFlightPages = new ArrayDeque<>();
+        try {
+            while(pageSizeController.hasNext() && inFlightPages.size() < maxInFlightPages)
+                inFlightPages.add(submitPageRequest(pageSizeController.next(), contentConsumer));
+            consumePage(firstPage, contentConsumer);
+
+            while(!inFlightPages.isEmpty()) {
+                PsiServerDatasetPageDTO page = waitForPage(inFlightPages.poll());
+                // Request the next page before processing the current one to keep the pipeline full
+                if(pageSizeController.hasNext())
+                    inFlightPages.add(submitPageRequest(pageSizeController.next(), contentConsumer));
+                consumePage(page, contentConsumer);
+            }
+        } finally {
+            for(Future<PsiServerDatasetPageDTO> future : inFlightPages)
+                future.cancel(true);
+        }
+        return pageSizeController.getRequestedPages();
+    }
+
+    /**
+     * @return the controller of the page size used by the last call to fetchAll, which provides statistics on the
+     * page sizes. Null if fetchAll was never called
+     */
+    public PageSizeController getPageSizeController() {
+        return pageSizeController;
+    }
+
+    private int fetchSequentially(PsiServerDatasetPageDTO firstPage, Consumer<Set<String>> contentConsumer) {
+        PsiServerDatasetPageDTO serverDatasetPageDTO = firstPage;
+        consumePage(firstPage, contentConsumer);
+        // The pages are requested through the pageSizeController, which counts them
+        while(Boolean.FALSE.equals(serverDatasetPageDTO.getLast())) {
+            serverDatasetPageDTO = requestPage(pageSizeController.next(), contentConsumer);
+            consumePage(serverDatasetPageDTO, contentConsumer);
+        }
+        return pageSizeController.getRequestedPages();
+    }
+
+    /**
+     * Requests the page [page index, page size] decided by the pageSizeController, and reports to it the latency and
+     * payload size of the page.
+     */
+    private PsiServerDatasetPageDTO requestPage(int[] pageRequest, Consumer<Set<String>> contentConsumer) {
+        long start = System.nanoTime();
+        long[] payloadBytes = new long[1];
+        PsiServerDatasetPageDTO psiServerDatasetPageDTO = requestPage(pageRequest[0], pageRequest[1], countingConsumer(contentConsumer, payloadBytes));
+        pageSizeController.onPageDownloaded(pageRequest[1], System.nanoTime() - start, payloadBytes[0] + estimatePayloadBytes(psiServerDatasetPageDTO));
+        return psiServerDatasetPageDTO;
+    }
+
+    private PsiServerDatasetPageDTO requestPage(int page, int size, Consumer<Set<String>> contentConsumer) {
+        if(streamingBatchSize > 0)
+            return psiServerApi.getPsiServerSetPage(sessionId, page, size, streamingBatchSize, contentConsumer);
+        return psiServerApi.getPsiServerSetPage(sessionId, page, size);
+    }
+
+    /**
+     * In streaming mode, wraps the consumer to estimate the payload size of the entries passed through it.
+     */
+    private Consumer<Set<String>> countingConsumer(Consumer<Set<String>> contentConsumer, long[] payloadBytes) {
+        if(streamingBatchSize < 1)
+            return contentConsumer;
+        return batch -> {
+            payloadBytes[0] += estimatePayloadBytes(batch);
+            contentConsumer.accept(batch);
+        };
+    }
+
+    private static long estimatePayloadBytes(PsiServerDatasetPageDTO page) {
+        return estimatePayloadBytes(page.getContent());
+    }
+
+    private static long estimatePayloadBytes(Set<String> entries) {
+        long payloadBytes = 0;
+        if(entries != null) {
+            for(String entry : entries)
+                payloadBytes += entry.length();
+        }
+        return payloadBytes;
+    }
+
+    private void consumePage(PsiServerDatasetPageDTO page, Consumer<Set<String>> contentConsumer) {
+        // In streaming mode, the content has already been consumed while downloading the page
+        if(streamingBatchSize < 1)
+            contentConsumer.accept(page.getContent());
+    }
+
+    private Future<PsiServerDatasetPageDTO> submitPageRequest(int[] pageRequest, Consumer<Set<String>> contentConsumer) {
+        return executorService.submit(() -> requestPage(pageRequest, contentConsumer));
+    }
+
+    private static PsiServerDatasetPageDTO waitForPage(Future<PsiServerDatasetPageDTO> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PsiDemoClientRuntimeException("Interrupted while downloading the server dataset");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new PsiDemoClientRuntimeException("Error downloading a page of the server dataset: " + e.getCause().getMessage());
+        }
+    }
+}
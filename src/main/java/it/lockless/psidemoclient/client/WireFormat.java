@@ -0,0 +1,51 @@
+package it.lockless.psidemoclient.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+
+/**
+ * Content types that can be used to exchange the encrypted datasets (POST /psi/{sessionId}/clientSet and
+ * GET /psi/{sessionId}/serverSet) with the server.
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, new JsonFactory()),
+
+    // Binary JSON: length-prefixed strings and no escaping, thus smaller payloads and cheaper parsing
+    SMILE(new MediaType("application", "x-jackson-smile"), new SmileFactory());
+
+    private final MediaType mediaType;
+
+    private final JsonFactory jsonFactory;
+
+    WireFormat(MediaType mediaType, JsonFactory jsonFactory) {
+        this.mediaType = mediaType;
+        this.jsonFactory = jsonFactory;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return the factory of the streaming parsers of this format
+     */
+    public JsonFactory getJsonFactory() {
+        return jsonFactory;
+    }
+
+    /**
+     * @param contentType the Content-Type of a response. Can be null
+     * @return the format matching the content type. If no format matches, JSON is returned
+     */
+    public static WireFormat fromContentType(MediaType contentType) {
+        if(contentType != null) {
+            for(WireFormat wireFormat : values()) {
+                if(wireFormat.mediaType.isCompatibleWith(contentType))
+                    return wireFormat;
+            }
+        }
+        return JSON;
+    }
+}
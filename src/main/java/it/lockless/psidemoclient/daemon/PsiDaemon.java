@@ -0,0 +1,196 @@
+package it.lockless.psidemoclient.daemon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Local HTTP endpoint accepting PSI jobs, such that a resident process (and thus its JIT-compiled code, HTTP
+ * connections and cache connections) serves many jobs. It offers:
+ *  - POST /compute, whose body is a JSON object {"args": [...]} with the arguments of the job. The call returns
+ *  when the job is completed, with its JSON result (200), or with {"error": "..."} if the arguments are not valid (400)
+ *  or the job failed (500). If the job queue is full, the job is rejected immediately (503);
+ *  - GET /health, which returns the number of running, queued and completed jobs.
+ * At most concurrency jobs run at the same time, and at most queueSize jobs wait for a free slot.
+ */
+public class PsiDaemon {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // Seconds given to the exchanges in progress when the daemon is stopped
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final HttpServer httpServer;
+
+    private final ThreadPoolExecutor jobExecutor;
+
+    private final ExecutorService httpExecutor;
+
+    private final Function<List<String>, Object> jobRunner;
+
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * Body of POST /compute.
+     */
+    public static class JobRequest {
+        private List<String> args = Collections.emptyList();
+
+        public List<String> getArgs() {
+            return args;
+        }
+
+        public void setArgs(List<String> args) {
+            this.args = args;
+        }
+    }
+
+    /**
+     * Binds the endpoint, which serves requests only after start is called.
+     *
+     * @param address       address of the endpoint. It should be a loopback address, since the jobs are not authenticated
+     * @param concurrency   max number of jobs running at the same time
+     * @param queueSize     max number of jobs waiting for a free slot
+     * @param jobRunner     runs a job given its arguments, returning its result, which is serialized as JSON.
+     *                      A CommandLine.ParameterException is reported as an invalid request
+     * @throws IOException if the address cannot be bound
+     */
+    public PsiDaemon(InetSocketAddress address, int concurrency, int queueSize, Function<List<String>, Object> jobRunner) throws IOException {
+        if(concurrency < 1 || queueSize < 0)
+            throw new IllegalArgumentException("The concurrency should be greater than 0 and the queue size should not be negative");
+        this.jobRunner = jobRunner;
+        // Without a queue, a job is rejected if all the slots are busy
+        this.jobExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new SynchronousQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("psi-daemon-job-%d").setDaemon(true).build());
+        // Each running or queued job holds an HTTP thread while waiting for its result, and the additional threads
+        // reject the jobs exceeding the queue and answer the health checks without waiting
+        this.httpExecutor = Executors.newFixedThreadPool(concurrency + queueSize + 2,
+                new ThreadFactoryBuilder().setNameFormat("psi-daemon-http-%d").setDaemon(true).build());
+        this.httpServer = HttpServer.create(address, 0);
+        this.httpServer.setExecutor(httpExecutor);
+        this.httpServer.createContext("/compute", this::handleCompute);
+        this.httpServer.createContext("/health", this::handleHealth);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * @return the port of the endpoint, which is useful if the daemon was bound to port 0
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting jobs and waits for the running and queued jobs to complete.
+     */
+    public void stop() {
+        if(stopped.getCount() == 0)
+            return;
+        jobExecutor.shutdown();
+        try {
+            jobExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        httpServer.stop(STOP_DELAY_SECONDS);
+        httpExecutor.shutdownNow();
+        stopped.countDown();
+    }
+
+    /**
+     * Blocks until the daemon is stopped.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void handleCompute(HttpExchange exchange) throws IOException {
+        try {
+            if(!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only POST is supported");
+                return;
+            }
+            JobRequest jobRequest;
+            try {
+                jobRequest = OBJECT_MAPPER.readValue(exchange.getRequestBody(), JobRequest.class);
+            } catch (IOException e) {
+                sendError(exchange, 400, "The body should be a JSON object with the args field");
+                return;
+            }
+            List<String> args = jobRequest.getArgs() == null ? Collections.emptyList() : jobRequest.getArgs();
+            Future<Object> job;
+            try {
+                job = jobExecutor.submit(() -> jobRunner.apply(args));
+            } catch (RejectedExecutionException e) {
+                sendError(exchange, 503, "The job queue is full");
+                return;
+            }
+            Object result;
+            try {
+                result = job.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                sendError(exchange, cause instanceof CommandLine.ParameterException ? 400 : 500, String.valueOf(cause.getMessage()));
+                return;
+            }
+            send(exchange, 200, result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "The daemon is stopping");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("runningJobs", jobExecutor.getActiveCount());
+            health.put("queuedJobs", jobExecutor.getQueue().size());
+            health.put("completedJobs", jobExecutor.getCompletedTaskCount());
+            send(exchange, 200, health);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, Collections.singletonMap("error", message));
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package it.lockless.psidemoclient.metrics;
+
+/**
+ * Formats in which the PsiMetrics can be exported.
+ */
+public enum MetricsFormat {
+    // JSON object with the timers and the counters
+    JSON,
+    // Prometheus text exposition format, which can be served by the node_exporter textfile collector
+    PROMETHEUS
+}
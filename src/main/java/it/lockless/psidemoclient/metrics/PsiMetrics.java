@@ -0,0 +1,231 @@
+package it.lockless.psidemoclient.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the metrics of a PSI execution: timers, whose durations are recorded in HdrHistograms such that their
+ * percentiles can be exported, and counters (e.g., the bytes exchanged with the server).
+ * Timers and counters are created on their first use and can be updated concurrently.
+ * The names of the timers and counters used by the client are defined by the constants of this class.
+ */
+public class PsiMetrics {
+
+    // Phases of the compute command
+    public static final String TOTAL = "total";
+    public static final String SESSION_CREATION = "session_creation";
+    public static final String BLOOM_FILTER_LOAD = "bloom_filter_load";
+    public static final String FILE_LOAD = "file_load";
+    public static final String CLIENT_ENCRYPTION = "client_encryption";
+    public static final String CLIENT_SET_UPLOAD = "client_set_upload";
+    public static final String CLIENT_SET_LOAD = "client_set_load";
+    public static final String SERVER_SET_PAGE_DOWNLOAD = "server_set_page_download";
+    public static final String SERVER_SET_PAGE_PROCESS = "server_set_page_process";
+    public static final String COMPUTE_PSI = "compute_psi";
+    public static final String RESULT_WRITE = "result_write";
+
+    // Single cache operations, only recorded by MeteredPsiCacheProvider
+    public static final String CACHE_GET = "cache_get";
+    public static final String CACHE_PUT = "cache_put";
+
+    // Counters
+    public static final String HTTP_BYTES_SENT = "http_bytes_sent";
+    public static final String HTTP_BYTES_RECEIVED = "http_bytes_received";
+    public static final String CLIENT_SET_ENTRIES = "client_set_entries";
+    public static final String SERVER_SET_ENTRIES = "server_set_entries";
+    public static final String CACHE_HIT = "cache_hit";
+    public static final String CACHE_MISS = "cache_miss";
+
+    private static final String PROMETHEUS_PREFIX = "psi_client_";
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    // Values of the Prometheus quantile label of each percentile, which are written as the canonical decimals since
+    // dividing the percentiles by 100 is not exact (e.g., 99.9 / 100 = 0.9990000000000001)
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99", "0.999"};
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<String, Histogram> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Records a duration of a timer.
+     *
+     * @param timer the name of the timer
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(String timer, long nanos) {
+        timers.computeIfAbsent(timer, name -> new ConcurrentHistogram(SIGNIFICANT_DIGITS)).recordValue(Math.max(nanos, 0));
+    }
+
+    /**
+     * Runs the input supplier and records its duration, even if it throws an exception.
+     *
+     * @param timer    the name of the timer
+     * @param supplier the timed code
+     * @param <T>      the type of the result
+     * @return the result of the supplier
+     */
+    public <T> T time(String timer, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(timer, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs the input runnable and records its duration, even if it throws an exception.
+     *
+     * @param timer    the name of the timer
+     * @param runnable the timed code
+     */
+    public void time(String timer, Runnable runnable) {
+        long start = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            record(timer, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param counter the name of the counter
+     * @param delta   the value added to the counter
+     */
+    public void increment(String counter, long delta) {
+        counters.computeIfAbsent(counter, name -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * @param timer the name of the timer
+     * @return the number of durations recorded by the timer
+     */
+    public long getCount(String timer) {
+        Histogram histogram = timers.get(timer);
+        return histogram == null ? 0 : histogram.getTotalCount();
+    }
+
+    /**
+     * @param counter the name of the counter
+     * @return the value of the counter, which is 0 if it was never incremented
+     */
+    public long getCounter(String counter) {
+        LongAdder longAdder = counters.get(counter);
+        return longAdder == null ? 0 : longAdder.sum();
+    }
+
+    /**
+     * Exports the metrics as a JSON object with the fields timers and counters. For each timer, the count, the sum,
+     * the min, the max and the percentiles of the recorded durations are exported in seconds.
+     *
+     * @return the JSON representation of the metrics
+     */
+    public String toJson() {
+        Map<String, Object> timersJson = new LinkedHashMap<>();
+        for(Map.Entry<String, Histogram> timer : sortedTimers().entrySet()) {
+            Histogram histogram = timer.getValue().copy();
+            Map<String, Object> timerJson = new LinkedHashMap<>();
+            timerJson.put("count", histogram.getTotalCount());
+            timerJson.put("sumSeconds", sumSeconds(histogram));
+            timerJson.put("minSeconds", toSeconds(histogram.getMinValue()));
+            timerJson.put("maxSeconds", toSeconds(histogram.getMaxValue()));
+            for(double percentile : PERCENTILES)
+                timerJson.put("p" + formatPercentile(percentile) + "Seconds", toSeconds(histogram.getValueAtPercentile(percentile)));
+            timersJson.put(timer.getKey(), timerJson);
+        }
+        Map<String, Object> metricsJson = new LinkedHashMap<>();
+        metricsJson.put("timers", timersJson);
+        metricsJson.put("counters", sortedCounters());
+        try {
+            return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(metricsJson);
+        } catch (IOException e) {
+            // Cannot happen, since only maps and numbers are serialized
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Exports the metrics in the Prometheus text exposition format. The timers are exported as a single summary
+     * (psi_client_duration_seconds) labelled by operation, and each counter as a psi_client_[name]_total counter.
+     *
+     * @return the Prometheus representation of the metrics
+     */
+    public String toPrometheus() {
+        StringBuilder stringBuilder = new StringBuilder();
+        String durationMetric = PROMETHEUS_PREFIX + "duration_seconds";
+        stringBuilder.append("# HELP ").append(durationMetric).append(" Duration of the phases and operations of the PSI client\n");
+        stringBuilder.append("# TYPE ").append(durationMetric).append(" summary\n");
+        for(Map.Entry<String, Histogram> timer : sortedTimers().entrySet()) {
+            Histogram histogram = timer.getValue().copy();
+            String label = "operation=\"" + timer.getKey() + "\"";
+            for(int i = 0; i < PERCENTILES.length; i++) {
+                stringBuilder.append(durationMetric).append('{').append(label).append(",quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                        .append(toSeconds(histogram.getValueAtPercentile(PERCENTILES[i]))).append('\n');
+            }
+            stringBuilder.append(durationMetric).append("_sum{").append(label).append("} ").append(sumSeconds(histogram)).append('\n');
+            stringBuilder.append(durationMetric).append("_count{").append(label).append("} ").append(histogram.getTotalCount()).append('\n');
+        }
+        for(Map.Entry<String, Long> counter : sortedCounters().entrySet()) {
+            String counterMetric = PROMETHEUS_PREFIX + counter.getKey() + "_total";
+            stringBuilder.append("# TYPE ").append(counterMetric).append(" counter\n");
+            stringBuilder.append(counterMetric).append(' ').append(counter.getValue()).append('\n');
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Writes the metrics on a file, replacing its content.
+     *
+     * @param file          the output file
+     * @param metricsFormat the format of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(File file, MetricsFormat metricsFormat) throws IOException {
+        String content = metricsFormat == MetricsFormat.PROMETHEUS ? toPrometheus() : toJson();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, Histogram> sortedTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    private Map<String, Long> sortedCounters() {
+        Map<String, Long> sortedCounters = new TreeMap<>();
+        counters.forEach((name, longAdder) -> sortedCounters.put(name, longAdder.sum()));
+        return sortedCounters;
+    }
+
+    private static double sumSeconds(Histogram histogram) {
+        // The mean is computed on the bucket values, thus the sum has the precision of the histogram
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getMean() * histogram.getTotalCount() / NANOS_PER_SECOND;
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    private static String formatPercentile(double percentile) {
+        // 50 -> 50, 99.9 -> 999
+        return percentile % 1 == 0 ? String.valueOf((long) percentile) : String.valueOf(percentile).replace(".", "");
+    }
+}
@@ -8,8 +8,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Predicate;
 
 @SuppressWarnings("UnstableApiUsage")
 public class BloomFilterHelper {
@@ -32,20 +32,17 @@ public class BloomFilterHelper {
     }
 
     /**
-     * Filters the client dataset with the input Bloom Filter
+     * Filters the client dataset in place with the input Bloom Filter: the entries that are not contained in the
+     * Bloom Filter are removed from the input set, such that a second copy of the dataset is not materialized.
+     * When the Bloom Filter is known before loading the dataset, filtering while reading the dataset file
+     * (see MappedDatasetReader and StreamingDatasetReader) avoids loading the discarded entries altogether.
      *
-     * @param inputDataset the client dataset
-     * @param bloomFilter the Bloom Filter received from the server
-     * @return a filtered client dataset which only contains the entries that are likely to also be part of
-     * the server dataset. Due to Bloom Filter semantics, we are sure that all the entries of the client dataset
-     * which are not in the result, are also not part of the server dataset.
+     * @param inputDataset the client dataset, which is modified. After the call, it only contains the entries that
+     *                     are likely to also be part of the server dataset. Due to Bloom Filter semantics, we are sure
+     *                     that all the removed entries are not part of the server dataset.
+     * @param bloomFilter the Bloom Filter received from the server (e.g., a Guava BloomFilter or a MappedBloomFilter)
      */
-    public static Set<String> filterSet(Set<String> inputDataset, BloomFilter<CharSequence> bloomFilter){
-        Set<String> resultSet = new HashSet<>();
-        for(String s : inputDataset){
-            if(bloomFilter.mightContain(s))
-                resultSet.add(s);
-        }
-        return resultSet;
+    public static void retainMightContain(Set<String> inputDataset, Predicate<? super String> bloomFilter){
+        inputDataset.removeIf(bloomFilter.negate());
     }
 }
@@ -0,0 +1,121 @@
+package it.lockless.psidemoclient.util;
+
+import it.lockless.psidemoclient.dto.BloomFilterDTO;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Persists the last Bloom Filter received from a server in a local file, such that the following executions can
+ * reuse it without downloading it again while the server does not create a newer one.
+ * The file stores the URL of the server, the creation date of the Bloom Filter and its serialized representation.
+ * It is replaced atomically, thus concurrent executions never read a partially written file.
+ * The stored Bloom Filter is memory-mapped (see MappedBloomFilter) rather than loaded on the heap.
+ */
+public class BloomFilterStore {
+
+    // "PSBF" followed by the version of the format
+    private static final int MAGIC = 0x50534246;
+    private static final int VERSION = 2;
+
+    private final Path storeFile;
+
+    private final String serverBaseUrl;
+
+    /**
+     * @param storeFile     the file storing the Bloom Filter
+     * @param serverBaseUrl URL of the server which created the Bloom Filter. A Bloom Filter stored for a different
+     *                      server is ignored
+     */
+    public BloomFilterStore(File storeFile, String serverBaseUrl) {
+        this.storeFile = storeFile.toPath();
+        this.serverBaseUrl = serverBaseUrl;
+    }
+
+    /**
+     * A Bloom Filter read from the store.
+     */
+    public static class StoredBloomFilter {
+        private final Instant creationDate;
+        private final MappedBloomFilter bloomFilter;
+
+        private StoredBloomFilter(Instant creationDate, MappedBloomFilter bloomFilter) {
+            this.creationDate = creationDate;
+            this.bloomFilter = bloomFilter;
+        }
+
+        public Instant getCreationDate() {
+            return creationDate;
+        }
+
+        public MappedBloomFilter getBloomFilter() {
+            return bloomFilter;
+        }
+    }
+
+    /**
+     * @return the stored Bloom Filter, or null if the file does not exist, is not valid or stores the Bloom Filter
+     * of a different server
+     */
+    public StoredBloomFilter load() {
+        try (FileChannel fileChannel = FileChannel.open(storeFile, StandardOpenOption.READ)) {
+            // A single MappedByteBuffer cannot be larger than Integer.MAX_VALUE bytes
+            if(fileChannel.size() > Integer.MAX_VALUE)
+                throw new IOException("the file is too large to be mapped");
+            // The mapping stays valid after the channel is closed, and the file is never modified in place
+            ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                return null;
+            byte[] storedServerBaseUrl = new byte[buffer.getInt(8)];
+            for(int i = 0; i < storedServerBaseUrl.length; i++)
+                storedServerBaseUrl[i] = buffer.get(12 + i);
+            if(!serverBaseUrl.equals(new String(storedServerBaseUrl, StandardCharsets.UTF_8)))
+                return null;
+            int offset = 12 + storedServerBaseUrl.length;
+            Instant creationDate = Instant.ofEpochSecond(buffer.getLong(offset), buffer.getInt(offset + 8));
+            return new StoredBloomFilter(creationDate, MappedBloomFilter.wrap(buffer, offset + 12));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring the invalid Bloom Filter file " + storeFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the stored Bloom Filter.
+     *
+     * @param bloomFilterDTO the Bloom Filter, with both its creation date and its serialized representation
+     * @throws IOException if the file cannot be written
+     */
+    public void save(BloomFilterDTO bloomFilterDTO) throws IOException {
+        Path absoluteStoreFile = storeFile.toAbsolutePath();
+        Path tempFile = Files.createTempFile(absoluteStoreFile.getParent(), absoluteStoreFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                outputStream.writeInt(MAGIC);
+                outputStream.writeInt(VERSION);
+                byte[] serverBaseUrlBytes = serverBaseUrl.getBytes(StandardCharsets.UTF_8);
+                outputStream.writeInt(serverBaseUrlBytes.length);
+                outputStream.write(serverBaseUrlBytes);
+                outputStream.writeLong(bloomFilterDTO.getBloomFilterCreationDate().getEpochSecond());
+                outputStream.writeInt(bloomFilterDTO.getBloomFilterCreationDate().getNano());
+                outputStream.write(bloomFilterDTO.getSerializedBloomFilter());
+            }
+            Files.move(tempFile, absoluteStoreFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package it.lockless.psidemoclient.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
+
+import java.nio.charset.Charset;
+
+/**
+ * Set of 128-bit fingerprints (murmur3) of strings, used to de-duplicate the entries of a dataset without
+ * holding the strings themselves. Each entry takes 16 bytes, stored in two open-addressing long arrays.
+ * Two distinct strings are considered equal only if their 128-bit fingerprints collide, whose probability is
+ * negligible even for datasets of billions of entries.
+ * This class is not thread-safe.
+ */
+public class FingerprintSet {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final Charset charset;
+
+    private long[] highBits;
+
+    private long[] lowBits;
+
+    private int size;
+
+    public FingerprintSet(Charset charset) {
+        this.charset = charset;
+        this.highBits = new long[INITIAL_CAPACITY];
+        this.lowBits = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds the fingerprint of the input string to the set.
+     *
+     * @param entry the string to be added
+     * @return true if the fingerprint was not already in the set, false otherwise
+     */
+    public boolean add(String entry) {
+        byte[] fingerprint = HASH_FUNCTION.hashString(entry, charset).asBytes();
+        long high = Longs.fromBytes(fingerprint[0], fingerprint[1], fingerprint[2], fingerprint[3],
+                fingerprint[4], fingerprint[5], fingerprint[6], fingerprint[7]);
+        long low = Longs.fromBytes(fingerprint[8], fingerprint[9], fingerprint[10], fingerprint[11],
+                fingerprint[12], fingerprint[13], fingerprint[14], fingerprint[15]);
+        // The pair (0, 0) marks an empty slot
+        if(high == 0 && low == 0)
+            low = 1;
+
+        if(!insert(highBits, lowBits, high, low))
+            return false;
+        // Keep the load factor below 0.75
+        if(++size > (highBits.length >> 2) * 3)
+            resize();
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static boolean insert(long[] highBits, long[] lowBits, long high, long low) {
+        int mask = highBits.length - 1;
+        int slot = (int) high & mask;
+        while(highBits[slot] != 0 || lowBits[slot] != 0) {
+            if(highBits[slot] == high && lowBits[slot] == low)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        highBits[slot] = high;
+        lowBits[slot] = low;
+        return true;
+    }
+
+    private void resize() {
+        if(highBits.length == 1 << 30)
+            throw new PsiDemoClientRuntimeException("Too many entries to de-duplicate the dataset");
+        long[] newHighBits = new long[highBits.length << 1];
+        long[] newLowBits = new long[lowBits.length << 1];
+        for(int i = 0; i < highBits.length; i++) {
+            if(highBits[i] != 0 || lowBits[i] != 0)
+                insert(newHighBits, newLowBits, highBits[i], lowBits[i]);
+        }
+        this.highBits = newHighBits;
+        this.lowBits = newLowBits;
+    }
+}
@@ -0,0 +1,76 @@
+package it.lockless.psidemoclient.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the executors running the I/O-bound tasks of the client (e.g., the download of the pages of the server
+ * dataset and the upload of the chunks of the client dataset), which spend most of their time blocked on the network.
+ * On JDK 21+ each task runs on a new virtual thread, such that a blocked task does not hold a platform thread.
+ * On older JDKs, where virtual threads are not available, the tasks run on a bounded pool of platform threads.
+ * Since the project targets Java 8, the virtual threads are created by reflection.
+ * In both cases, the number of in-flight tasks should be bounded by the caller.
+ */
+public final class IoExecutors {
+
+    // Thread.ofVirtual, Thread.Builder.name(String, long), Thread.Builder.factory and Executors.newThreadPerTaskExecutor
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // On JDK 19 and 20 virtual threads are a preview feature, which fails here unless enabled
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private IoExecutors() {
+    }
+
+    /**
+     * @return true if the running JDK supports virtual threads
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param namePrefix     prefix of the names of the threads, which are followed by a counter
+     * @param maxThreads     number of platform threads used if virtual threads are not used
+     * @param virtualThreads if true and the running JDK supports them, each task runs on a new virtual thread
+     * @return the executor, whose threads do not prevent the JVM from exiting. Should be shut down by the caller
+     */
+    public static ExecutorService newIoExecutor(String namePrefix, int maxThreads, boolean virtualThreads) {
+        if(virtualThreads && isVirtualThreadsAvailable()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, BUILDER_FACTORY.invoke(builder));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new PsiDemoClientRuntimeException("Cannot create the virtual threads " + namePrefix + ": " + e.getMessage());
+            }
+        }
+        return Executors.newFixedThreadPool(maxThreads, new ThreadFactoryBuilder().setNameFormat(namePrefix + "%d").setDaemon(true).build());
+    }
+}
@@ -0,0 +1,153 @@
+package it.lockless.psidemoclient.util;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import psi.exception.CustomRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+
+/**
+ * Read-only Bloom Filter which queries the serialized representation of a Guava BloomFilter<CharSequence>
+ * (see BloomFilter.writeTo) directly, without deserializing it. The serialized Bloom Filter can be held in a heap
+ * ByteBuffer wrapping the received bytes, in a direct ByteBuffer or in a memory-mapped file, such that it is never
+ * copied in a second on-heap array. The answers of mightContain are the same as the ones of the Guava BloomFilter.
+ * The serialized layout is [strategy ordinal (1 byte), number of hash functions (1 byte), number of longs (int),
+ * longs of the bit array], with big-endian integers.
+ * This class is thread-safe, since the buffer is only read with absolute gets.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class MappedBloomFilter implements Predicate<CharSequence> {
+
+    private static final int HEADER_SIZE = 6;
+
+    // Ordinals of BloomFilterStrategies
+    private static final int MURMUR128_MITZ_32 = 0;
+    private static final int MURMUR128_MITZ_64 = 1;
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static final Funnel<CharSequence> FUNNEL = Funnels.stringFunnel(StandardCharsets.UTF_8);
+
+    private final ByteBuffer buffer;
+
+    // Position of the first long of the bit array
+    private final int dataOffset;
+
+    private final int strategy;
+
+    private final int numHashFunctions;
+
+    private final long bitSize;
+
+    private MappedBloomFilter(ByteBuffer buffer, int offset) {
+        if(buffer.limit() - offset < HEADER_SIZE)
+            throw new CustomRuntimeException("Cannot deserialize the Bloom Filter");
+        this.buffer = buffer;
+        this.dataOffset = offset + HEADER_SIZE;
+        this.strategy = buffer.get(offset);
+        this.numHashFunctions = buffer.get(offset + 1) & 0xFF;
+        int dataLength = buffer.getInt(offset + 2);
+        if((strategy != MURMUR128_MITZ_32 && strategy != MURMUR128_MITZ_64) || numHashFunctions == 0 || dataLength <= 0
+                || (long) dataLength * Long.BYTES > buffer.limit() - dataOffset)
+            throw new CustomRuntimeException("Cannot deserialize the Bloom Filter");
+        this.bitSize = (long) dataLength * Long.SIZE;
+    }
+
+    /**
+     * @param buffer buffer containing a serialized Guava BloomFilter<CharSequence> starting at position 0. The
+     *               buffer should not be modified while this object is used
+     * @return the Bloom Filter backed by the buffer
+     */
+    public static MappedBloomFilter wrap(ByteBuffer buffer) {
+        return wrap(buffer, 0);
+    }
+
+    /**
+     * @param buffer buffer containing a serialized Guava BloomFilter<CharSequence>. The buffer should not be
+     *               modified while this object is used
+     * @param offset position of the serialized Bloom Filter in the buffer
+     * @return the Bloom Filter backed by the buffer
+     */
+    public static MappedBloomFilter wrap(ByteBuffer buffer, int offset) {
+        return new MappedBloomFilter(buffer, offset);
+    }
+
+    /**
+     * Memory-maps a file containing a serialized Guava BloomFilter<CharSequence>.
+     *
+     * @param file the file, which should not be modified while this object is used
+     * @return the Bloom Filter backed by the file
+     * @throws IOException if the file cannot be mapped
+     */
+    public static MappedBloomFilter map(File file) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // A single MappedByteBuffer cannot be larger than Integer.MAX_VALUE bytes
+            if(fileChannel.size() > Integer.MAX_VALUE)
+                throw new IOException("The Bloom Filter file " + file.getPath() + " is too large to be mapped");
+            // The mapping stays valid after the channel is closed
+            return wrap(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()));
+        }
+    }
+
+    /**
+     * @param entry the entry to be checked
+     * @return true if the entry might have been put in the Bloom Filter, false if this is definitely not the case
+     */
+    public boolean mightContain(CharSequence entry) {
+        byte[] hash = HASH_FUNCTION.hashObject(entry, FUNNEL).asBytes();
+        if(strategy == MURMUR128_MITZ_64) {
+            long hash1 = littleEndianLong(hash, 0);
+            long hash2 = littleEndianLong(hash, 8);
+            long combinedHash = hash1;
+            for(int i = 0; i < numHashFunctions; i++) {
+                if(!getBit((combinedHash & Long.MAX_VALUE) % bitSize))
+                    return false;
+                combinedHash += hash2;
+            }
+            return true;
+        }
+        long hash64 = littleEndianLong(hash, 0);
+        int hash1 = (int) hash64;
+        int hash2 = (int) (hash64 >>> 32);
+        for(int i = 1; i <= numHashFunctions; i++) {
+            int combinedHash = hash1 + (i * hash2);
+            if(combinedHash < 0)
+                combinedHash = ~combinedHash;
+            if(!getBit(combinedHash % bitSize))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean test(CharSequence entry) {
+        return mightContain(entry);
+    }
+
+    /**
+     * @return the number of bits of the Bloom Filter
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    private boolean getBit(long index) {
+        long word = buffer.getLong(dataOffset + (int) (index >>> 6) * Long.BYTES);
+        return (word & (1L << index)) != 0;
+    }
+
+    private static long littleEndianLong(byte[] bytes, int offset) {
+        long value = 0;
+        for(int i = Long.BYTES - 1; i >= 0; i--)
+            value = (value << 8) | (bytes[offset + i] & 0xFFL);
+        return value;
+    }
+}
@@ -0,0 +1,192 @@
+package it.lockless.psidemoclient.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Loads the whole client dataset file in memory by memory-mapping it and parsing it on multiple threads.
+ * The file is split into segments at newline boundaries, and each segment is parsed by a different thread, which
+ * adds its lines to a concurrent set (thus removing duplicates). Lines are terminated by \n, \r or \r\n, as with
+ * BufferedReader.readLine().
+ * Since segments are split by looking for the \n byte, this reader only supports charsets that encode \n and \r with
+ * a single byte which is never part of other characters (e.g., UTF-8, ISO-8859-1 and US-ASCII).
+ * If a filter is provided (e.g., a Bloom Filter), it is applied by the parsing threads, such that the entries that do
+ * not satisfy it are never added to the set.
+ */
+public class MappedDatasetReader {
+
+    // A single MappedByteBuffer cannot be larger than Integer.MAX_VALUE bytes
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    // Bytes read from the beginning of the file to estimate the average length of a line
+    private static final int LINE_LENGTH_SAMPLE_SIZE = 1 << 16;
+
+    // The set is presized for at most this number of entries, and grows beyond it if needed
+    private static final int MAX_PRESIZED_ENTRIES = 1 << 22;
+
+    private MappedDatasetReader() {
+    }
+
+    /**
+     * @param charset the charset of the dataset file
+     * @return true if the input charset can be parsed by this reader
+     */
+    public static boolean isSupportedCharset(Charset charset) {
+        return Arrays.equals("\n".getBytes(charset), new byte[]{'\n'})
+                && Arrays.equals("\r".getBytes(charset), new byte[]{'\r'});
+    }
+
+    /**
+     * Reads all the entries of the dataset file.
+     *
+     * @param datasetFile   file containing the client dataset. Each line of the file is interpreted as an entry
+     * @param charset       charset used to decode the file. Should satisfy isSupportedCharset
+     * @param threads       number of threads used to parse the file
+     * @return the set of distinct entries of the dataset
+     * @throws IOException if the file cannot be read
+     */
+    public static Set<String> read(File datasetFile, Charset charset, int threads) throws IOException {
+        return read(datasetFile, charset, threads, null);
+    }
+
+    /**
+     * Reads the entries of the dataset file that satisfy the input filter.
+     *
+     * @param datasetFile   file containing the client dataset. Each line of the file is interpreted as an entry
+     * @param charset       charset used to decode the file. Should satisfy isSupportedCharset
+     * @param threads       number of threads used to parse the file
+     * @param filter        if not null, only the entries that satisfy the filter are returned. Should be thread-safe
+     * @return the set of distinct entries of the dataset which satisfy the filter
+     * @throws IOException if the file cannot be read
+     */
+    public static Set<String> read(File datasetFile, Charset charset, int threads, Predicate<? super String> filter) throws IOException {
+        if(!isSupportedCharset(charset))
+            throw new IllegalArgumentException("The charset " + charset + " is not supported by the memory-mapped reader");
+
+        try (FileChannel fileChannel = FileChannel.open(datasetFile.toPath(), StandardOpenOption.READ)) {
+            long fileSize = fileChannel.size();
+            List<long[]> segments = splitInSegments(fileChannel, fileSize, threads);
+            // When filtered, the entries are usually a small part of the lines, thus the set is left to grow
+            Set<String> dataset = filter == null ?
+                    ConcurrentHashMap.newKeySet(estimateLines(fileChannel, fileSize))
+                    : ConcurrentHashMap.newKeySet();
+
+            ExecutorService executorService = Executors.newFixedThreadPool(threads);
+            try {
+                List<Callable<Void>> tasks = new ArrayList<>(segments.size());
+                for(long[] segment : segments) {
+                    tasks.add(() -> {
+                        MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, segment[0], segment[1] - segment[0]);
+                        parseSegment(buffer, charset, filter, dataset);
+                        return null;
+                    });
+                }
+                for(Future<Void> future : executorService.invokeAll(tasks))
+                    future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PsiDemoClientRuntimeException("Interrupted while reading the input dataset");
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof IOException)
+                    throw (IOException) e.getCause();
+                throw new PsiDemoClientRuntimeException("Cannot read the input dataset: " + e.getCause().getMessage());
+            } finally {
+                executorService.shutdownNow();
+            }
+            return dataset;
+        }
+    }
+
+    /**
+     * Estimates the number of lines of the file from the average length of the lines in its first bytes, such that
+     * the set of entries is not re-hashed many times while it is filled.
+     */
+    private static int estimateLines(FileChannel fileChannel, long fileSize) throws IOException {
+        if(fileSize == 0)
+            return 0;
+        MappedByteBuffer sample = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(LINE_LENGTH_SAMPLE_SIZE, fileSize));
+        int sampledLines = 0;
+        while(sample.hasRemaining()) {
+            if(sample.get() == '\n')
+                sampledLines++;
+        }
+        long averageLineLength = Math.max(1, sample.limit() / Math.max(1, sampledLines));
+        return (int) Math.min(fileSize / averageLineLength + 1, MAX_PRESIZED_ENTRIES);
+    }
+
+    /**
+     * Splits the file into segments [start, end) of similar size, such that each segment but the last one
+     * ends right after a \n byte.
+     */
+    private static List<long[]> splitInSegments(FileChannel fileChannel, long fileSize, int threads) throws IOException {
+        long segments = Math.max(threads, (fileSize + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE);
+        long targetSegmentSize = Math.max(1, fileSize / segments);
+        List<long[]> result = new ArrayList<>();
+        long start = 0;
+        while(start < fileSize) {
+            long end = Math.min(start + targetSegmentSize, fileSize);
+            if(end < fileSize)
+                end = nextLineStart(fileChannel, end, fileSize);
+            if(end - start > Integer.MAX_VALUE)
+                throw new PsiDemoClientRuntimeException("The input dataset contains a line that is too long");
+            result.add(new long[]{start, end});
+            start = end;
+        }
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel fileChannel, long position, long fileSize) throws IOException {
+        while(position < fileSize) {
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(1 << 16, fileSize - position));
+            while(buffer.hasRemaining()) {
+                if(buffer.get() == '\n')
+                    return position + buffer.position();
+            }
+            position += buffer.limit();
+        }
+        return fileSize;
+    }
+
+    private static void parseSegment(MappedByteBuffer buffer, Charset charset, Predicate<? super String> filter, Set<String> dataset) {
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        boolean previousWasCarriageReturn = false;
+        while(buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if(b == '\n' || b == '\r') {
+                // \r\n terminates a single line
+                if(!(b == '\n' && previousWasCarriageReturn))
+                    addEntry(new String(line, 0, lineLength, charset), filter, dataset);
+                lineLength = 0;
+                previousWasCarriageReturn = b == '\r';
+                continue;
+            }
+            previousWasCarriageReturn = false;
+            if(lineLength == line.length)
+                line = Arrays.copyOf(line, line.length << 1);
+            line[lineLength++] = b;
+        }
+        if(lineLength > 0)
+            addEntry(new String(line, 0, lineLength, charset), filter, dataset);
+    }
+
+    private static void addEntry(String entry, Predicate<? super String> filter, Set<String> dataset) {
+        if(filter == null || filter.test(entry))
+            dataset.add(entry);
+    }
+}
@@ -0,0 +1,116 @@
+package it.lockless.psidemoclient.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Reads the client dataset file line by line and returns it as a sequence of chunks of at most chunkSize entries,
+ * such that the whole dataset is never held in memory. Each line of the file is interpreted as an entry of the dataset.
+ * Duplicated entries are skipped on the fly by keeping track of the fingerprints of the entries already read
+ * (see FingerprintSet), rather than of the entries themselves.
+ * If a filter is provided (e.g., a Bloom Filter), the entries that do not satisfy it are discarded while reading.
+ */
+public class StreamingDatasetReader implements Iterator<Set<String>>, Closeable {
+
+    private final BufferedReader bufferedReader;
+
+    private final int chunkSize;
+
+    private final Predicate<? super String> filter;
+
+    private final FingerprintSet readEntries;
+
+    private Set<String> nextChunk;
+
+    private long returnedEntries;
+
+    private long duplicatedEntries;
+
+    private long filteredEntries;
+
+    /**
+     * @param datasetFile   file containing the client dataset
+     * @param charset       charset used to decode the file
+     * @param chunkSize     max number of entries of each chunk
+     * @param filter        if not null, only the entries that satisfy the filter are returned
+     * @throws IOException if the file cannot be opened
+     */
+    public StreamingDatasetReader(File datasetFile, Charset charset, int chunkSize, Predicate<? super String> filter) throws IOException {
+        if(chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size should be greater than 0");
+        this.bufferedReader = new BufferedReader(new InputStreamReader(Files.newInputStream(datasetFile.toPath()), charset));
+        this.chunkSize = chunkSize;
+        this.filter = filter;
+        this.readEntries = new FingerprintSet(charset);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(nextChunk == null)
+            nextChunk = readChunk();
+        return !nextChunk.isEmpty();
+    }
+
+    @Override
+    public Set<String> next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+        Set<String> chunk = nextChunk;
+        nextChunk = null;
+        returnedEntries += chunk.size();
+        return chunk;
+    }
+
+    private Set<String> readChunk() {
+        Set<String> chunk = new HashSet<>();
+        try {
+            String line;
+            while(chunk.size() < chunkSize && (line = bufferedReader.readLine()) != null) {
+                if(filter != null && !filter.test(line))
+                    filteredEntries++;
+                else if(!readEntries.add(line))
+                    duplicatedEntries++;
+                else chunk.add(line);
+            }
+        } catch (IOException e) {
+            throw new PsiDemoClientRuntimeException("Cannot read the input dataset");
+        }
+        return chunk;
+    }
+
+    /**
+     * @return the number of entries returned so far
+     */
+    public long getReturnedEntries() {
+        return returnedEntries;
+    }
+
+    /**
+     * @return the number of duplicated entries skipped so far
+     */
+    public long getDuplicatedEntries() {
+        return duplicatedEntries;
+    }
+
+    /**
+     * @return the number of entries discarded so far because they do not satisfy the filter
+     */
+    public long getFilteredEntries() {
+        return filteredEntries;
+    }
+
+    @Override
+    public void close() throws IOException {
+        bufferedReader.close();
+    }
+}
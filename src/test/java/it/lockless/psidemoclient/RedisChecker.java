@@ -11,8 +11,7 @@ public class RedisChecker implements BooleanSupplier {
 
     @Override
     public boolean getAsBoolean() {
-        try{
-            new RedisPsiCacheProvider("localhost", 6379);
+        try (RedisPsiCacheProvider redisPsiCacheProvider = new RedisPsiCacheProvider("localhost", 6379)){
             return true;
         }catch (Exception exception){
             return false;
@@ -0,0 +1,232 @@
+package it.lockless.psidemoclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.lockless.psidemoclient.batch.BatchJobResult;
+import it.lockless.psidemoclient.client.PsiServerApi;
+import it.lockless.psidemoclient.dto.PsiClientSessionDTO;
+import it.lockless.psidemoclient.dto.PsiDatasetMapDTO;
+import it.lockless.psidemoclient.dto.PsiServerDatasetPageDTO;
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import picocli.CommandLine;
+import psi.PsiServerFactory;
+import psi.exception.UnsupportedKeySizeException;
+import psi.model.PsiAlgorithm;
+import psi.model.PsiAlgorithmParameter;
+import psi.model.PsiClientSession;
+import psi.model.PsiServerSession;
+import psi.server.PsiServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RunBatchTest {
+
+    PsiClientCLI psiClientCLI;
+
+    @Mock
+    PsiServerApi psiServerApiBs;
+
+    @Mock
+    PsiServerApi psiServerApiEcbs;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() throws IllegalAccessException {
+        this.psiClientCLI = new PsiClientCLI();
+        FieldUtils.writeField(psiClientCLI,"batchConcurrency", 2, true);
+        FieldUtils.writeField(psiClientCLI,"batchSummaryFile", tempDir.resolve("summary.json").toFile(), true);
+    }
+
+    private void mockServer(PsiServerApi psiServerApi, PsiAlgorithm algorithm, int keySize, int commonEntries) throws UnsupportedKeySizeException {
+        PsiAlgorithmParameter psiAlgorithmParameter = new PsiAlgorithmParameter();
+        psiAlgorithmParameter.setAlgorithm(algorithm);
+        psiAlgorithmParameter.setKeySize(keySize);
+        PsiServerSession psiServerSession = PsiServerFactory.initSession(psiAlgorithmParameter);
+        PsiClientSessionDTO psiClientSessionDTO = new PsiClientSessionDTO();
+        psiClientSessionDTO.setPsiClientSession(PsiClientSession.getFromServerSession(psiServerSession));
+        psiClientSessionDTO.setSessionId(1L);
+        psiClientSessionDTO.setExpiration(Instant.now().plus(1, ChronoUnit.HOURS));
+        when(psiServerApi.postPsi(any())).thenReturn(psiClientSessionDTO);
+
+        PsiServer psiServer = PsiServerFactory.loadSession(psiServerSession);
+        when(psiServerApi.postPsiClientSet(any(), any())).thenAnswer(
+                invocation -> new PsiDatasetMapDTO(psiServer.encryptDatasetMap(((PsiDatasetMapDTO) invocation.getArgument(1)).getContent())));
+
+        Set<String> serverDataset = new HashSet<>();
+        for(long i = 0; i < commonEntries; i ++)
+            serverDataset.add("COMMON-"+i);
+        for(long i = 0; i < 10; i ++)
+            serverDataset.add("SERVER"+i);
+        PsiServerDatasetPageDTO psiServerDatasetPageDTO = new PsiServerDatasetPageDTO();
+        psiServerDatasetPageDTO.setContent(psiServer.encryptDataset(serverDataset));
+        psiServerDatasetPageDTO.setPage(0);
+        psiServerDatasetPageDTO.setSize(100);
+        psiServerDatasetPageDTO.setEntries(serverDataset.size());
+        psiServerDatasetPageDTO.setTotalPages(1);
+        psiServerDatasetPageDTO.setLast(true);
+        when(psiServerApi.getPsiServerSetPage(1L, 0, 100)).thenReturn(psiServerDatasetPageDTO);
+    }
+
+    private File writeManifest(String... lines) throws IOException {
+        File manifest = tempDir.resolve("manifest.yaml").toFile();
+        Files.write(manifest.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return manifest;
+    }
+
+    private PsiServerApi psiServerApi(String serverBaseUrl) {
+        switch (serverBaseUrl) {
+            case "https://bs.mock.com":
+                return psiServerApiBs;
+            case "https://ecbs.mock.com":
+                return psiServerApiEcbs;
+            default:
+                throw new PsiDemoClientRuntimeException("Unknown server " + serverBaseUrl);
+        }
+    }
+
+    @Test
+    void runBatchDifferentServers() throws IOException, IllegalAccessException, UnsupportedKeySizeException {
+        mockServer(psiServerApiBs, PsiAlgorithm.BS, 2048, 10);
+        mockServer(psiServerApiEcbs, PsiAlgorithm.ECBS, 256, 3);
+        String bsOutput = tempDir.resolve("bs.txt").toString();
+        String ecbsOutput = tempDir.resolve("ecbs.txt").toString();
+        FieldUtils.writeField(psiClientCLI,"batchManifest", writeManifest(
+                "jobs:",
+                "  - name: bs",
+                "    serverUrl: https://bs.mock.com",
+                "    inputDataset: dummy-dataset.txt",
+                "    output: " + bsOutput,
+                "    outputKeyDescription: " + bsOutput + ".yaml",
+                "  - name: ecbs",
+                "    serverUrl: https://ecbs.mock.com",
+                "    inputDataset: dummy-dataset.txt",
+                "    algorithm: ECBS",
+                "    keySize: 256",
+                "    output: " + ecbsOutput,
+                "    outputKeyDescription: " + ecbsOutput + ".yaml",
+                "  - name: missing",
+                "    serverUrl: https://bs.mock.com",
+                "    inputDataset: missing-dataset.txt"), true);
+
+        List<BatchJobResult> batchJobResults = psiClientCLI.runBatch(this::psiServerApi, Arrays.asList("-a", "BS", "-k", "2048"));
+
+        assertEquals(3, batchJobResults.size());
+        assertEquals("bs", batchJobResults.get(0).getName());
+        assertTrue(batchJobResults.get(0).isSuccessful());
+        assertEquals(5, batchJobResults.get(0).getPsiSize());
+        assertEquals(5, Files.readAllLines(new File(bsOutput).toPath(), StandardCharsets.UTF_8).size());
+        assertEquals("ecbs", batchJobResults.get(1).getName());
+        assertTrue(batchJobResults.get(1).isSuccessful());
+        assertEquals(3, batchJobResults.get(1).getPsiSize());
+        assertEquals(3, Files.readAllLines(new File(ecbsOutput).toPath(), StandardCharsets.UTF_8).size());
+        // A failed job does not stop the others
+        assertFalse(batchJobResults.get(2).isSuccessful());
+        assertEquals("Cannot read the input dataset missing-dataset.txt", batchJobResults.get(2).getError());
+
+        JsonNode summary = new ObjectMapper().readTree(tempDir.resolve("summary.json").toFile());
+        assertEquals(3, summary.get("jobs").asInt());
+        assertEquals(2, summary.get("successfulJobs").asInt());
+        assertEquals(1, summary.get("failedJobs").asInt());
+        assertEquals("https://ecbs.mock.com", summary.get("results").get(1).get("serverUrl").asText());
+        assertEquals(3, summary.get("results").get(1).get("psiSize").asInt());
+    }
+
+    @Test
+    void runBatchBaseServer() throws IOException, IllegalAccessException, UnsupportedKeySizeException {
+        mockServer(psiServerApiBs, PsiAlgorithm.BS, 2048, 10);
+        // The jobs without serverUrl and output use the server of the batch and write on NAME-out.txt
+        File output = new File("batch-base-out.txt");
+        output.deleteOnExit();
+        new File("batch-base-key.yaml").deleteOnExit();
+        FieldUtils.writeField(psiClientCLI,"batchManifest", writeManifest(
+                "jobs:",
+                "  - name: batch-base",
+                "    inputDataset: dummy-dataset.txt",
+                "  - inputDataset: dummy-dataset.txt",
+                "    serverUrl: https://unknown.mock.com"), true);
+
+        List<BatchJobResult> batchJobResults = psiClientCLI.runBatch(this::psiServerApi, Arrays.asList("-url", "https://bs.mock.com/"));
+
+        assertTrue(batchJobResults.get(0).isSuccessful());
+        assertEquals("https://bs.mock.com", batchJobResults.get(0).getServerUrl());
+        assertEquals(5, Files.readAllLines(output.toPath(), StandardCharsets.UTF_8).size());
+        assertEquals("job-2", batchJobResults.get(1).getName());
+        assertFalse(batchJobResults.get(1).isSuccessful());
+        assertEquals("Unknown server https://unknown.mock.com", batchJobResults.get(1).getError());
+    }
+
+    @Test
+    void runBatchDifferentLocalCaches() throws IOException, IllegalAccessException, UnsupportedKeySizeException {
+        mockServer(psiServerApiBs, PsiAlgorithm.BS, 2048, 10);
+        File firstCache = tempDir.resolve("first.db").toFile();
+        File secondCache = tempDir.resolve("second.db").toFile();
+        FieldUtils.writeField(psiClientCLI,"batchManifest", writeManifest(
+                "jobs:",
+                "  - name: first",
+                "    inputDataset: dummy-dataset.txt",
+                "    output: " + tempDir.resolve("first.txt"),
+                "    outputKeyDescription: " + tempDir.resolve("first.yaml"),
+                "    args: [\"-cpath\", \"" + firstCache.getPath() + "\"]",
+                "  - name: second",
+                "    inputDataset: dummy-dataset.txt",
+                "    output: " + tempDir.resolve("second.txt"),
+                "    outputKeyDescription: " + tempDir.resolve("second.yaml"),
+                "    args: [\"-cpath\", \"" + secondCache.getPath() + "\"]"), true);
+
+        List<BatchJobResult> batchJobResults = psiClientCLI.runBatch(this::psiServerApi, Arrays.asList("-url", "https://bs.mock.com", "-c", "-ct", "LOCAL"));
+
+        assertTrue(batchJobResults.get(0).isSuccessful());
+        assertTrue(batchJobResults.get(1).isSuccessful());
+        assertEquals(5, batchJobResults.get(1).getPsiSize());
+        // Each job writes on the cache it asked for, rather than on the one opened by the other job
+        assertTrue(firstCache.length() > 8);
+        assertTrue(secondCache.length() > 8);
+    }
+
+    @Test
+    void runBatchInvalidManifest() throws IOException, IllegalAccessException {
+        new CommandLine(psiClientCLI);
+        assertThrows(CommandLine.ParameterException.class, () -> psiClientCLI.runBatch(this::psiServerApi, Collections.emptyList()));
+
+        FieldUtils.writeField(psiClientCLI,"batchManifest", writeManifest(
+                "jobs:",
+                "  - name: duplicated",
+                "    inputDataset: dummy-dataset.txt",
+                "  - name: duplicated",
+                "    inputDataset: dummy-dataset.txt"), true);
+        assertThrows(PsiDemoClientRuntimeException.class, () -> psiClientCLI.runBatch(this::psiServerApi, Collections.emptyList()));
+
+        FieldUtils.writeField(psiClientCLI,"batchManifest", writeManifest(
+                "jobs:",
+                "  - unknownField: value"), true);
+        assertThrows(PsiDemoClientRuntimeException.class, () -> psiClientCLI.runBatch(this::psiServerApi, Collections.emptyList()));
+    }
+}
@@ -1,9 +1,17 @@
 package it.lockless.psidemoclient;
 
+import com.google.common.collect.Iterables;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import it.lockless.psidemoclient.cache.CacheType;
+import it.lockless.psidemoclient.cache.RedisCacheStatistics;
 import it.lockless.psidemoclient.client.PsiServerApi;
+import it.lockless.psidemoclient.dto.BloomFilterDTO;
 import it.lockless.psidemoclient.dto.PsiClientSessionDTO;
 import it.lockless.psidemoclient.dto.PsiDatasetMapDTO;
 import it.lockless.psidemoclient.dto.PsiServerDatasetPageDTO;
+import it.lockless.psidemoclient.metrics.MetricsFormat;
+import it.lockless.psidemoclient.metrics.PsiMetrics;
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import picocli.CommandLine;
 import psi.PsiServerFactory;
 import psi.exception.UnsupportedKeySizeException;
 import psi.model.PsiAlgorithm;
@@ -20,16 +29,32 @@ import psi.model.PsiClientSession;
 import psi.model.PsiServerSession;
 import psi.server.PsiServer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +67,8 @@ class RunComputeTest {
 
     Set<String> serverDataset;
 
+    int streamingBatchSize;
+
     private PsiServerSession mockPostSession(PsiAlgorithmParameter psiAlgorithmParameter) throws UnsupportedKeySizeException {
        PsiServerSession psiServerSession = PsiServerFactory.initSession(psiAlgorithmParameter);
        PsiClientSession psiClientSession = PsiClientSession.getFromServerSession(psiServerSession);
@@ -85,7 +112,7 @@ class RunComputeTest {
         psiServerDatasetPageDTO1.setEntries(encryptedDatasetPage1.size());
         psiServerDatasetPageDTO1.setTotalPages(2);
         psiServerDatasetPageDTO1.setLast(false);
-        when(psiServerApi.getPsiServerSetPage(1L, 0,    100)).thenReturn(psiServerDatasetPageDTO1);
+        mockPage(psiServerDatasetPageDTO1);
 
         PsiServerDatasetPageDTO psiServerDatasetPageDTO2 = new PsiServerDatasetPageDTO();
         psiServerDatasetPageDTO2.setContent(encryptedDatasetPage2);
@@ -94,7 +121,25 @@ class RunComputeTest {
         psiServerDatasetPageDTO2.setEntries(encryptedDatasetPage1.size());
         psiServerDatasetPageDTO2.setTotalPages(2);
         psiServerDatasetPageDTO2.setLast(true);
-        when(psiServerApi.getPsiServerSetPage(1L, 1,    100)).thenReturn(psiServerDatasetPageDTO2);
+        mockPage(psiServerDatasetPageDTO2);
+    }
+
+    private void mockPage(PsiServerDatasetPageDTO psiServerDatasetPageDTO){
+        if(streamingBatchSize < 1) {
+            when(psiServerApi.getPsiServerSetPage(1L, psiServerDatasetPageDTO.getPage(), 100)).thenReturn(psiServerDatasetPageDTO);
+            return;
+        }
+        // The streaming variant passes the content in batches to the consumer and only returns the paging metadata
+        when(psiServerApi.getPsiServerSetPage(eq(1L), eq(psiServerDatasetPageDTO.getPage()), eq(100), eq(streamingBatchSize), any())).thenAnswer(invocation -> {
+            Consumer<Set<String>> contentConsumer = invocation.getArgument(4);
+            for(List<String> batch : Iterables.partition(psiServerDatasetPageDTO.getContent(), streamingBatchSize))
+                contentConsumer.accept(new HashSet<>(batch));
+            PsiServerDatasetPageDTO metadata = new PsiServerDatasetPageDTO();
+            metadata.setPage(psiServerDatasetPageDTO.getPage());
+            metadata.setLast(psiServerDatasetPageDTO.getLast());
+            metadata.setTotalPages(psiServerDatasetPageDTO.getTotalPages());
+            return metadata;
+        });
     }
 
     private void loadServerDataset(){
@@ -116,6 +161,8 @@ class RunComputeTest {
         FieldUtils.writeField(psiClientCLI,"inputDataset", new File("dummy-dataset.txt"), true);
         FieldUtils.writeField(psiClientCLI,"outputFile", new File("out.txt"), true);
         FieldUtils.writeField(psiClientCLI,"outputKeyDescriptionFile", new File("key.yaml"), true);
+        FieldUtils.writeField(psiClientCLI,"charset", StandardCharsets.UTF_8, true);
+        FieldUtils.writeField(psiClientCLI,"serverSetPageSize", 100, true);
         loadServerDataset();
     }
 
@@ -142,6 +189,31 @@ class RunComputeTest {
         assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
     }
 
+    @Test
+    void runComputeUnparsableDatasetWithoutSession() throws IllegalAccessException, IOException {
+        new CommandLine(psiClientCLI);
+        File directory = Files.createTempDirectory("psi-dataset").toFile();
+        directory.deleteOnExit();
+        // A directory can be read, but cannot be parsed as a dataset
+        FieldUtils.writeField(psiClientCLI,"inputDataset", directory, true);
+        FieldUtils.writeField(psiClientCLI,"algorithm", "BS", true);
+        FieldUtils.writeField(psiClientCLI,"keySize", 2048, true);
+        assertThrows(CommandLine.ParameterException.class, () -> psiClientCLI.runCompute(psiServerApi));
+        // Without Bloom Filter, the dataset is loaded before creating the session
+        verify(psiServerApi, never()).postPsi(any());
+    }
+
+    @Test
+    void runComputeWithoutTotalPages() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        // The server only sets the last field of each page
+        psiServerApi.getPsiServerSetPage(1L, 0, 100).setTotalPages(null);
+        psiServerApi.getPsiServerSetPage(1L, 1, 100).setTotalPages(null);
+        PsiClientCLI.ProcessExecutionResult processExecutionResult = psiClientCLI.runCompute(psiServerApi);
+        assertEquals(5, processExecutionResult.getPsiSize());
+        assertEquals(2, processExecutionResult.getServerSetPages());
+    }
+
     @Test
     void runDhComputeBasic() throws IllegalAccessException, UnsupportedKeySizeException {
         setupMock(PsiAlgorithm.DH, 2048);
@@ -160,6 +232,179 @@ class RunComputeTest {
         assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
     }
 
+    // Adds the Bloom Filter of the server dataset to the session returned by the mock
+    private PsiClientSessionDTO mockBloomFilter() throws IOException, IllegalAccessException {
+        BloomFilter<CharSequence> bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), serverDataset.size(), 0.000001);
+        serverDataset.forEach(bloomFilter::put);
+        ByteArrayOutputStream serializedBloomFilter = new ByteArrayOutputStream();
+        bloomFilter.writeTo(serializedBloomFilter);
+        BloomFilterDTO bloomFilterDTO = new BloomFilterDTO();
+        bloomFilterDTO.setSerializedBloomFilter(serializedBloomFilter.toByteArray());
+        bloomFilterDTO.setBloomFilterCreationDate(Instant.now());
+        PsiClientSessionDTO psiClientSessionDTO = psiServerApi.postPsi(null);
+        psiClientSessionDTO.setBloomFilterDTO(bloomFilterDTO);
+        FieldUtils.writeField(psiClientCLI,"bloomFilterMaxAge", 10, true);
+        return psiClientSessionDTO;
+    }
+
+    @Test
+    void runBsComputeBloomFilter() throws IllegalAccessException, UnsupportedKeySizeException, IOException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        mockBloomFilter();
+
+        // The Bloom Filter is applied while the dataset file is read, both sequentially and by the memory-mapped reader
+        for(int datasetReaderThreads = 0; datasetReaderThreads <= 2; datasetReaderThreads += 2) {
+            FieldUtils.writeField(psiClientCLI, "datasetReaderThreads", datasetReaderThreads, true);
+            assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+        }
+        verify(psiServerApi, times(2)).postPsiClientSet(any(), argThat(psiDatasetMapDTO -> psiDatasetMapDTO.getContent().size() == 5));
+    }
+
+    @Test
+    void runBsComputeStoredBloomFilter() throws IllegalAccessException, UnsupportedKeySizeException, IOException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        PsiClientSessionDTO psiClientSessionDTO = mockBloomFilter();
+        File bloomFilterFile = File.createTempFile("bloom-filter", ".bin");
+        bloomFilterFile.deleteOnExit();
+        Files.delete(bloomFilterFile.toPath());
+        FieldUtils.writeField(psiClientCLI,"bloomFilterFile", bloomFilterFile, true);
+
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+        assertTrue(bloomFilterFile.exists());
+
+        // The server does not send the Bloom Filter again since it is not newer than the stored one
+        Instant bloomFilterCreationDate = psiClientSessionDTO.getBloomFilterDTO().getBloomFilterCreationDate();
+        psiClientSessionDTO.getBloomFilterDTO().setSerializedBloomFilter(null);
+        when(psiServerApi.postPsi(any(), eq(bloomFilterCreationDate))).thenReturn(psiClientSessionDTO);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+        verify(psiServerApi, times(2)).postPsiClientSet(any(), argThat(psiDatasetMapDTO -> psiDatasetMapDTO.getContent().size() == 5));
+    }
+
+    @Test
+    void runBsComputeInFlightPages() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        FieldUtils.writeField(psiClientCLI,"serverSetInFlightPages", 4, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+    }
+
+    @Test
+    void runEcdhComputeInFlightPages() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.ECDH, 256);
+        FieldUtils.writeField(psiClientCLI,"serverSetInFlightPages", 1, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+    }
+
+    @Test
+    void runDhComputeConcurrentBranches() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.DH, 2048);
+        FieldUtils.writeField(psiClientCLI,"concurrentBranches", true, true);
+        FieldUtils.writeField(psiClientCLI,"serverSetInFlightPages", 4, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+    }
+
+    @Test
+    void runEcbsComputeConcurrentBranches() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.ECBS, 256);
+        FieldUtils.writeField(psiClientCLI,"concurrentBranches", true, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+    }
+
+    @Test
+    void runBsComputeClientSetChunks() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        FieldUtils.writeField(psiClientCLI,"clientSetChunkSize", 3, true);
+        FieldUtils.writeField(psiClientCLI,"clientSetInFlightChunks", 2, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+        verify(psiServerApi, times(4)).postPsiClientSet(any(), any());
+    }
+
+    @Test
+    void runEcdhComputeClientSetChunksSequential() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.ECDH, 256);
+        FieldUtils.writeField(psiClientCLI,"clientSetChunkSize", 4, true);
+        FieldUtils.writeField(psiClientCLI,"concurrentBranches", true, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+        verify(psiServerApi, times(3)).postPsiClientSet(any(), any());
+    }
+
+    @Test
+    void runDhComputeMappedDatasetReader() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.DH, 2048);
+        FieldUtils.writeField(psiClientCLI,"datasetReaderThreads", 3, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+    }
+
+    @Test
+    void runBsComputeStreamingServerSet() throws IllegalAccessException, UnsupportedKeySizeException {
+        streamingBatchSize = 3;
+        setupMock(PsiAlgorithm.BS, 2048);
+        FieldUtils.writeField(psiClientCLI,"serverSetStreamingBatchSize", streamingBatchSize, true);
+        FieldUtils.writeField(psiClientCLI,"serverSetInFlightPages", 2, true);
+        assertEquals(5, psiClientCLI.runCompute(psiServerApi).getPsiSize());
+    }
+
+    @Test
+    void runBsComputeMetrics() throws IllegalAccessException, UnsupportedKeySizeException, IOException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        File cacheFile = File.createTempFile("psi-cache", ".db");
+        cacheFile.deleteOnExit();
+        Files.delete(cacheFile.toPath());
+        File metricsFile = File.createTempFile("psi-metrics", ".prom");
+        metricsFile.deleteOnExit();
+        FieldUtils.writeField(psiClientCLI,"cache", true, true);
+        FieldUtils.writeField(psiClientCLI,"cacheType", CacheType.LOCAL, true);
+        FieldUtils.writeField(psiClientCLI,"cachePath", cacheFile, true);
+        FieldUtils.writeField(psiClientCLI,"metricsFile", metricsFile, true);
+        FieldUtils.writeField(psiClientCLI,"metricsFormat", MetricsFormat.PROMETHEUS, true);
+
+        PsiClientCLI.ProcessExecutionResult processExecutionResult = psiClientCLI.runCompute(psiServerApi);
+        assertEquals(5, processExecutionResult.getPsiSize());
+        PsiMetrics psiMetrics = processExecutionResult.getPsiMetrics();
+        for(String phase : Arrays.asList(PsiMetrics.TOTAL, PsiMetrics.SESSION_CREATION, PsiMetrics.FILE_LOAD, PsiMetrics.CLIENT_ENCRYPTION,
+                PsiMetrics.CLIENT_SET_LOAD, PsiMetrics.COMPUTE_PSI, PsiMetrics.RESULT_WRITE))
+            assertEquals(1, psiMetrics.getCount(phase), phase);
+        assertEquals(2, psiMetrics.getCount(PsiMetrics.SERVER_SET_PAGE_PROCESS));
+        assertEquals(10, psiMetrics.getCounter(PsiMetrics.CLIENT_SET_ENTRIES));
+        assertEquals(20, psiMetrics.getCounter(PsiMetrics.SERVER_SET_ENTRIES));
+        assertEquals(processExecutionResult.getTotalCacheMiss(), psiMetrics.getCounter(PsiMetrics.CACHE_MISS));
+        assertTrue(psiMetrics.getCount(PsiMetrics.CACHE_GET) > 0);
+
+        List<String> lines = Files.readAllLines(metricsFile.toPath());
+        assertTrue(lines.contains("psi_client_duration_seconds_count{operation=\"compute_psi\"} 1"));
+        assertTrue(lines.contains("psi_client_server_set_entries_total 20"));
+    }
+
+    @Test
+    void runEcbsComputeAdaptivePageSize() throws IllegalAccessException, UnsupportedKeySizeException {
+        setupMock(PsiAlgorithm.ECBS, 256);
+        // Serve pages of any size from the sorted encrypted server dataset
+        List<String> encryptedServerDataset = new ArrayList<>();
+        for(PsiServerDatasetPageDTO page : Arrays.asList(psiServerApi.getPsiServerSetPage(1L, 0, 100), psiServerApi.getPsiServerSetPage(1L, 1, 100)))
+            encryptedServerDataset.addAll(page.getContent());
+        Collections.sort(encryptedServerDataset);
+        when(psiServerApi.getPsiServerSetPage(eq(1L), anyInt(), anyInt())).thenAnswer(invocation -> {
+            int page = invocation.getArgument(1);
+            int size = invocation.getArgument(2);
+            PsiServerDatasetPageDTO psiServerDatasetPageDTO = new PsiServerDatasetPageDTO();
+            psiServerDatasetPageDTO.setContent(new HashSet<>(encryptedServerDataset.subList(
+                    Math.min(page * size, encryptedServerDataset.size()), Math.min((page + 1) * size, encryptedServerDataset.size()))));
+            psiServerDatasetPageDTO.setTotalEntries(encryptedServerDataset.size());
+            psiServerDatasetPageDTO.setTotalPages((encryptedServerDataset.size() + size - 1) / size);
+            psiServerDatasetPageDTO.setLast((page + 1) * size >= encryptedServerDataset.size());
+            return psiServerDatasetPageDTO;
+        });
+        FieldUtils.writeField(psiClientCLI,"serverSetPageSize", 2, true);
+        FieldUtils.writeField(psiClientCLI,"serverSetMinPageSize", 1, true);
+        FieldUtils.writeField(psiClientCLI,"serverSetMaxPageSize", 8, true);
+        FieldUtils.writeField(psiClientCLI,"serverSetInFlightPages", 1, true);
+
+        PsiClientCLI.ProcessExecutionResult processExecutionResult = psiClientCLI.runCompute(psiServerApi);
+        assertEquals(5, processExecutionResult.getPsiSize());
+        // Fast in-memory pages make the page size grow up to the max
+        assertEquals(8, processExecutionResult.getServerSetLargestPageSize());
+        assertTrue(processExecutionResult.getServerSetPages() < 10);
+    }
+
     @Test
     @Tag("redis") // Expects a Redis server running at localhost:6379
     void runBsComputeCache() throws IllegalAccessException, UnsupportedKeySizeException {
@@ -176,6 +421,87 @@ class RunComputeTest {
     }
 
 
+    @Test
+    void runBsComputeLocalCache() throws IllegalAccessException, UnsupportedKeySizeException, IOException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        File cacheFile = File.createTempFile("psi-cache", ".db");
+        cacheFile.deleteOnExit();
+        Files.delete(cacheFile.toPath());
+        FieldUtils.writeField(psiClientCLI,"cache", true, true);
+        FieldUtils.writeField(psiClientCLI,"cacheType", CacheType.LOCAL, true);
+        FieldUtils.writeField(psiClientCLI,"cachePath", cacheFile, true);
+
+        PsiClientCLI.ProcessExecutionResult firstPsi = psiClientCLI.runCompute(psiServerApi);
+        PsiClientCLI.ProcessExecutionResult secondPsi = psiClientCLI.runCompute(psiServerApi);
+        assertEquals(firstPsi.getPsiSize(), secondPsi.getPsiSize());
+        assertEquals(5, secondPsi.getPsiSize());
+        // The second execution reuses the entries written on the local file by the first one
+        assertEquals(0, firstPsi.getTotalCacheHit());
+        assertTrue(secondPsi.getTotalCacheHit() > 0);
+        assertEquals(firstPsi.getTotalCacheMiss(), secondPsi.getTotalCacheHit());
+    }
+
+    @Test
+    void runBsWarmupLocalCache() throws IllegalAccessException, UnsupportedKeySizeException, IOException {
+        setupMock(PsiAlgorithm.BS, 2048);
+        File cacheFile = File.createTempFile("psi-cache", ".db");
+        cacheFile.deleteOnExit();
+        Files.delete(cacheFile.toPath());
+        FieldUtils.writeField(psiClientCLI,"cache", true, true);
+        FieldUtils.writeField(psiClientCLI,"cacheType", CacheType.LOCAL, true);
+        FieldUtils.writeField(psiClientCLI,"cachePath", cacheFile, true);
+        FieldUtils.writeField(psiClientCLI,"clientSetChunkSize", 3, true);
+        FieldUtils.writeField(psiClientCLI,"warmupThreads", 2, true);
+
+        PsiClientCLI.ProcessExecutionResult warmup = psiClientCLI.runWarmup(psiServerApi);
+        assertTrue(warmup.isSuccessful());
+        assertEquals(0, warmup.getTotalCacheHit());
+        assertTrue(warmup.getTotalCacheMiss() > 0);
+        // Only the session is created, the client dataset is not sent to the server
+        verify(psiServerApi, times(0)).postPsiClientSet(any(), any());
+
+        // The encryptions of the client dataset are served by the cache
+        PsiClientCLI.ProcessExecutionResult computePsi = psiClientCLI.runCompute(psiServerApi);
+        assertEquals(5, computePsi.getPsiSize());
+        assertEquals(warmup.getTotalCacheMiss(), computePsi.getTotalCacheHit());
+    }
+
+    @Test
+    @Tag("redis") // Expects a Redis server running at localhost:6379
+    void runBsComputeNearCache()throws IllegalAccessException, UnsupportedKeySizeException {
+        Assumptions.assumeTrue(new RedisChecker(), "Redis is not available at localhost:6379. Skipping test");
+        setupMock(PsiAlgorithm.BS, 2048);
+        setupRedis();
+        FieldUtils.writeField(psiClientCLI,"nearCacheMaxMegabytes", 16, true);
+
+        psiClientCLI.runCompute(psiServerApi);
+        PsiClientCLI.ProcessExecutionResult secondPsi = psiClientCLI.runCompute(psiServerApi);
+        assertEquals(5, secondPsi.getPsiSize());
+        // The second execution is served by the near cache populated by the first one
+        assertEquals(20, secondPsi.getNearCacheHit());
+        assertEquals(0, secondPsi.getNearCacheMiss());
+        assertEquals(secondPsi.getTotalCacheHit(), secondPsi.getNearCacheHit());
+    }
+
+    @Test
+    @Tag("redis") // Expects a Redis server running at localhost:6379
+    void runBsComputeCompactCacheStats() throws IllegalAccessException, UnsupportedKeySizeException {
+        Assumptions.assumeTrue(new RedisChecker(), "Redis is not available at localhost:6379. Skipping test");
+        setupMock(PsiAlgorithm.BS, 2048);
+        setupRedis();
+        FieldUtils.writeField(psiClientCLI,"compactCacheEncoding", true, true);
+        FieldUtils.writeField(psiClientCLI,"cacheTtl", 60L, true);
+
+        psiClientCLI.runCompute(psiServerApi);
+        PsiClientCLI.ProcessExecutionResult secondPsi = psiClientCLI.runCompute(psiServerApi);
+        assertEquals(5, secondPsi.getPsiSize());
+        assertEquals(20, secondPsi.getTotalCacheHit());
+
+        RedisCacheStatistics redisCacheStatistics = psiClientCLI.runCacheStats();
+        assertTrue(redisCacheStatistics.getKeyCount("psi:BS:2048:") >= 20);
+        assertTrue(redisCacheStatistics.getMemoryUsage("psi:BS:2048:") > 0);
+    }
+
     @Test
     @Tag("redis") // Expects a Redis server running at localhost:6379
     void runDhComputeCache() throws IllegalAccessException, UnsupportedKeySizeException {
@@ -0,0 +1,166 @@
+package it.lockless.psidemoclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.lockless.psidemoclient.client.PsiServerApi;
+import it.lockless.psidemoclient.daemon.PsiDaemon;
+import it.lockless.psidemoclient.dto.PsiClientSessionDTO;
+import it.lockless.psidemoclient.dto.PsiDatasetMapDTO;
+import it.lockless.psidemoclient.dto.PsiServerDatasetPageDTO;
+import it.lockless.psidemoclient.util.PsiDemoClientRuntimeException;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import psi.PsiServerFactory;
+import psi.exception.UnsupportedKeySizeException;
+import psi.model.PsiAlgorithm;
+import psi.model.PsiAlgorithmParameter;
+import psi.model.PsiClientSession;
+import psi.model.PsiServerSession;
+import psi.server.PsiServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RunDaemonTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    PsiClientCLI psiClientCLI;
+
+    @Mock
+    PsiServerApi psiServerApi;
+
+    PsiDaemon psiDaemon;
+
+    @BeforeEach
+    void setup() throws IllegalAccessException {
+        this.psiClientCLI = new PsiClientCLI();
+        FieldUtils.writeField(psiClientCLI,"serverBaseUrl", "https://mock.com", true);
+        FieldUtils.writeField(psiClientCLI,"daemonHost", "127.0.0.1", true);
+        FieldUtils.writeField(psiClientCLI,"daemonPort", 0, true);
+        FieldUtils.writeField(psiClientCLI,"daemonConcurrency", 2, true);
+        FieldUtils.writeField(psiClientCLI,"daemonQueueSize", 4, true);
+        psiDaemon = psiClientCLI.startDaemon(() -> psiServerApi, Arrays.asList("-url", "https://mock.com", "-a", "BS", "-k", "2048"));
+    }
+
+    @AfterEach
+    void stop() {
+        psiClientCLI.stopDaemon(psiDaemon);
+    }
+
+    private void mockServer() throws UnsupportedKeySizeException {
+        PsiAlgorithmParameter psiAlgorithmParameter = new PsiAlgorithmParameter();
+        psiAlgorithmParameter.setAlgorithm(PsiAlgorithm.BS);
+        psiAlgorithmParameter.setKeySize(2048);
+        PsiServerSession psiServerSession = PsiServerFactory.initSession(psiAlgorithmParameter);
+        PsiClientSessionDTO psiClientSessionDTO = new PsiClientSessionDTO();
+        psiClientSessionDTO.setPsiClientSession(PsiClientSession.getFromServerSession(psiServerSession));
+        psiClientSessionDTO.setSessionId(1L);
+        psiClientSessionDTO.setExpiration(Instant.now().plus(1, ChronoUnit.HOURS));
+        when(psiServerApi.postPsi(any())).thenReturn(psiClientSessionDTO);
+
+        PsiServer psiServer = PsiServerFactory.loadSession(psiServerSession);
+        when(psiServerApi.postPsiClientSet(any(), any())).thenAnswer(
+                invocation -> new PsiDatasetMapDTO(psiServer.encryptDatasetMap(((PsiDatasetMapDTO) invocation.getArgument(1)).getContent())));
+
+        Set<String> serverDataset = new HashSet<>();
+        for(long i = 0; i < 10; i ++){
+            serverDataset.add("COMMON-"+i);
+            serverDataset.add("SERVER"+i);
+        }
+        PsiServerDatasetPageDTO psiServerDatasetPageDTO = new PsiServerDatasetPageDTO();
+        psiServerDatasetPageDTO.setContent(psiServer.encryptDataset(serverDataset));
+        psiServerDatasetPageDTO.setPage(0);
+        psiServerDatasetPageDTO.setSize(100);
+        psiServerDatasetPageDTO.setEntries(serverDataset.size());
+        psiServerDatasetPageDTO.setTotalPages(1);
+        psiServerDatasetPageDTO.setLast(true);
+        when(psiServerApi.getPsiServerSetPage(1L, 0, 100)).thenReturn(psiServerDatasetPageDTO);
+    }
+
+    private JsonNode postJob(int expectedStatus, String... args) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + psiDaemon.getPort() + "/compute").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(OBJECT_MAPPER.writeValueAsBytes(Collections.singletonMap("args", args)));
+        }
+        assertEquals(expectedStatus, connection.getResponseCode());
+        try (InputStream inputStream = expectedStatus < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return OBJECT_MAPPER.readTree(inputStream);
+        }
+    }
+
+    @Test
+    void runBsDaemonJobs() throws IOException, UnsupportedKeySizeException {
+        mockServer();
+        for(int job = 0; job < 3; job++) {
+            File outputFile = File.createTempFile("psi-result", ".txt");
+            outputFile.deleteOnExit();
+            JsonNode result = postJob(200, "-i", "dummy-dataset.txt", "-o", outputFile.getPath(), "-outkey", outputFile.getPath() + ".yaml");
+            new File(outputFile.getPath() + ".yaml").deleteOnExit();
+            assertEquals(5, result.get("psiSize").asInt());
+            assertEquals(5, Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8).size());
+        }
+        // A psiServerApi is created for each thread running the jobs, rather than for each job
+        verify(psiServerApi, atMost(2)).setExitOnError(false);
+    }
+
+    @Test
+    void runDaemonJobsOnDifferentCaches() throws IOException, UnsupportedKeySizeException {
+        mockServer();
+        File cacheDir = Files.createTempDirectory("psi-cache").toFile();
+        cacheDir.deleteOnExit();
+        for(String cacheName : Arrays.asList("first.db", "second.db")) {
+            File cacheFile = new File(cacheDir, cacheName);
+            cacheFile.deleteOnExit();
+            File outputFile = File.createTempFile("psi-result", ".txt");
+            outputFile.deleteOnExit();
+            new File(outputFile.getPath() + ".yaml").deleteOnExit();
+            JsonNode result = postJob(200, "-i", "dummy-dataset.txt", "-o", outputFile.getPath(), "-outkey", outputFile.getPath() + ".yaml",
+                    "-c", "-ct", "LOCAL", "-cpath", cacheFile.getPath());
+            assertEquals(5, result.get("psiSize").asInt());
+            // Each job opens the cache it asked for, rather than the one of the previous job
+            assertTrue(cacheFile.length() > 0);
+        }
+    }
+
+    @Test
+    void runDaemonInvalidJobs() throws IOException {
+        postJob(400, "--unknownOption");
+        postJob(400, "-url", "https://other.com", "-i", "dummy-dataset.txt");
+        postJob(400, "-i", "missing-dataset.txt");
+    }
+
+    @Test
+    void runDaemonServerError() throws IOException {
+        when(psiServerApi.postPsi(any())).thenThrow(new PsiDemoClientRuntimeException("Status code: 500"));
+        JsonNode error = postJob(500, "-i", "dummy-dataset.txt");
+        assertEquals("Status code: 500", error.get("error").asText());
+    }
+}
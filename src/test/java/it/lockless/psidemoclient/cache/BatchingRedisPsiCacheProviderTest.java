@@ -0,0 +1,170 @@
+package it.lockless.psidemoclient.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.params.SetParams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BatchingRedisPsiCacheProviderTest {
+
+    @Mock
+    private JedisPool jedisPool;
+
+    @Mock
+    private Jedis jedis;
+
+    @Mock
+    private Pipeline pipeline;
+
+    @Mock
+    private Response<String> setResponse;
+
+    @BeforeEach
+    void setup() {
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.pipelined()).thenReturn(pipeline);
+        when(pipeline.set(any(byte[].class), any(byte[].class), any(SetParams.class))).thenReturn(setResponse);
+        when(setResponse.get()).thenReturn("OK");
+        // Keys starting with "cached" are stored in redis with value "value-" + key
+        when(jedis.get(any(byte[].class))).thenAnswer(invocation -> {
+            String key = new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8);
+            return key.startsWith("cached") ? ("value-" + key).getBytes(StandardCharsets.UTF_8) : null;
+        });
+    }
+
+    @Test
+    void readYourWrites() {
+        BatchingRedisPsiCacheProvider cacheProvider = new BatchingRedisPsiCacheProvider(jedisPool, 100, 60_000, CacheCodec.PLAIN, 0);
+        cacheProvider.put("key", "value");
+        assertEquals(Optional.of("value"), cacheProvider.get("key"));
+        verify(jedis, never()).get(any(byte[].class));
+        // Writing a buffered key is ignored
+        cacheProvider.put("key", "value");
+
+        cacheProvider.close();
+        verify(pipeline).set(eq("key".getBytes(StandardCharsets.UTF_8)), eq("value".getBytes(StandardCharsets.UTF_8)), any(SetParams.class));
+        verify(pipeline).sync();
+        assertEquals(1, cacheProvider.getWriteBatches());
+    }
+
+    @Test
+    void writesAreFlushedInBatches() {
+        BatchingRedisPsiCacheProvider cacheProvider = new BatchingRedisPsiCacheProvider(jedisPool, 10, 60_000, CacheCodec.PLAIN, 0);
+        for(int i = 0; i < 95; i++)
+            cacheProvider.put("key" + i, "value" + i);
+        cacheProvider.close();
+        verify(pipeline, times(95)).set(any(byte[].class), any(byte[].class), any(SetParams.class));
+        assertTrue(cacheProvider.getWriteBatches() >= 10);
+        assertEquals(0, cacheProvider.getRejectedWrites());
+    }
+
+    @Test
+    void rejectedWritesAreCounted() {
+        when(setResponse.get()).thenReturn(null);
+        BatchingRedisPsiCacheProvider cacheProvider = new BatchingRedisPsiCacheProvider(jedisPool, 10, 60_000, CacheCodec.PLAIN, 0);
+        cacheProvider.put("key1", "value1");
+        cacheProvider.put("key2", "value2");
+        cacheProvider.close();
+        assertEquals(2, cacheProvider.getRejectedWrites());
+    }
+
+    @Test
+    void concurrentLookups() throws Exception {
+        BatchingRedisPsiCacheProvider cacheProvider = new BatchingRedisPsiCacheProvider(jedisPool, 50, 1, CacheCodec.PLAIN, 0);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executorService.submit(() -> {
+                    for(int i = 0; i < 100; i++) {
+                        assertEquals(Optional.of("value-cached" + thread + "-" + i), cacheProvider.get("cached" + thread + "-" + i));
+                        assertEquals(Optional.empty(), cacheProvider.get("missing" + thread + "-" + i));
+                    }
+                }));
+            }
+            for(Future<?> future : futures)
+                future.get();
+        } finally {
+            executorService.shutdownNow();
+            cacheProvider.close();
+        }
+        verify(jedis, times(1600)).get(any(byte[].class));
+    }
+
+    @Test
+    void failedPipelineDoesNotAffectLaterWrites() {
+        when(pipeline.set(eq("broken".getBytes(StandardCharsets.UTF_8)), any(byte[].class), any(SetParams.class)))
+                .thenThrow(new JedisConnectionException("Connection reset"));
+        BatchingRedisPsiCacheProvider cacheProvider = new BatchingRedisPsiCacheProvider(jedisPool, 1, 60_000, CacheCodec.PLAIN, 0);
+        cacheProvider.put("broken", "value");
+        // The batch is full, thus the flusher writes it without waiting for flushMillis
+        verify(pipeline, timeout(5000)).set(eq("broken".getBytes(StandardCharsets.UTF_8)), any(byte[].class), any(SetParams.class));
+        for(int i = 0; i < 10; i++)
+            cacheProvider.put("key" + i, "value" + i);
+        cacheProvider.close();
+        assertEquals(1, cacheProvider.getFailedWrites());
+        assertEquals(10, cacheProvider.getWriteBatches());
+    }
+
+    @Test
+    void putsConcurrentWithClose() throws Exception {
+        BatchingRedisPsiCacheProvider cacheProvider = new BatchingRedisPsiCacheProvider(jedisPool, 10, 1, CacheCodec.PLAIN, 0);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        AtomicInteger bufferedWrites = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executorService.submit(() -> {
+                    for(int i = 0; ; i++) {
+                        try {
+                            cacheProvider.put("key" + thread + "-" + i, "value");
+                        } catch (IllegalStateException e) {
+                            return;
+                        }
+                        bufferedWrites.incrementAndGet();
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            cacheProvider.close();
+            for(Future<?> future : futures)
+                future.get();
+        } finally {
+            executorService.shutdownNow();
+        }
+        // Every put accepted before close is written
+        verify(pipeline, times(bufferedWrites.get())).set(any(byte[].class), any(byte[].class), any(SetParams.class));
+    }
+}
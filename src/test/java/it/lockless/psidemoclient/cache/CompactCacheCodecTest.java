@@ -0,0 +1,64 @@
+package it.lockless.psidemoclient.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactCacheCodecTest {
+
+    private final CompactCacheCodec cacheCodec = new CompactCacheCodec(CompactCacheCodec.namespace("BS", 2048, null));
+
+    @Test
+    void valuesAreRestoredExactly() {
+        BigInteger bigInteger = new BigInteger(2048, new Random(42));
+        byte[] bytes = bigInteger.toByteArray();
+        List<String> values = Arrays.asList(
+                bigInteger.toString(),
+                bigInteger.toString(16),
+                bigInteger.toString(16).toUpperCase(),
+                "0" + bigInteger.toString(16),
+                "abc",
+                "00ff",
+                "0",
+                "007",
+                "-12",
+                "",
+                "AbCd",
+                Base64.getEncoder().encodeToString(bytes),
+                "not a number: ключ");
+        for(String value : values)
+            assertEquals(value, cacheCodec.decodeValue(cacheCodec.encodeValue(value)), value);
+    }
+
+    @Test
+    void bigNumbersAreStoredAsRawBytes() {
+        BigInteger bigInteger = new BigInteger(2048, new Random(42));
+        int rawLength = bigInteger.toByteArray().length;
+        assertTrue(cacheCodec.encodeValue(bigInteger.toString()).length <= rawLength + 1);
+        assertTrue(cacheCodec.encodeValue(bigInteger.toString(16)).length <= rawLength + 1);
+    }
+
+    @Test
+    void keysAreFixedSizeHashesInTheNamespace() {
+        String longKey = new BigInteger(4096, new Random(7)).toString();
+        byte[] encodedKey = cacheCodec.encodeKey(longKey);
+        byte[] namespace = "psi:BS:2048:".getBytes(StandardCharsets.UTF_8);
+        assertEquals(namespace.length + 16, encodedKey.length);
+        assertTrue(Arrays.equals(namespace, Arrays.copyOf(encodedKey, namespace.length)));
+        assertEquals(encodedKey.length, cacheCodec.encodeKey("short").length);
+        assertTrue(Arrays.equals(encodedKey, cacheCodec.encodeKey(longKey)));
+
+        // Entries created with different key descriptions are isolated
+        CompactCacheCodec otherCacheCodec = new CompactCacheCodec(CompactCacheCodec.namespace("BS", 2048, "key".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(Arrays.equals(encodedKey, otherCacheCodec.encodeKey(longKey)));
+    }
+}
@@ -0,0 +1,129 @@
+package it.lockless.psidemoclient.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalPsiCacheProviderTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void entriesArePersistedAcrossRuns() throws IOException {
+        File cacheFile = new File(tempDir, "cache.db");
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            // Enough entries to resize the index
+            for(int i = 0; i < 100_000; i++)
+                cacheProvider.put("key" + i, "value" + i);
+            cacheProvider.put("ключ", "значение");
+            assertEquals(Optional.of("value42"), cacheProvider.get("key42"));
+            assertEquals(Optional.empty(), cacheProvider.get("missing"));
+            // Writing an existing key is ignored
+            cacheProvider.put("key42", "value42");
+            assertEquals(100_001, cacheProvider.size());
+        }
+
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            assertEquals(100_001, cacheProvider.size());
+            for(int i = 0; i < 100_000; i++)
+                assertEquals(Optional.of("value" + i), cacheProvider.get("key" + i));
+            assertEquals(Optional.of("значение"), cacheProvider.get("ключ"));
+        }
+    }
+
+    @Test
+    void incompleteRecordIsDiscarded() throws IOException {
+        File cacheFile = new File(tempDir, "cache.db");
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            cacheProvider.put("key1", "value1");
+            cacheProvider.put("key2", "value2");
+        }
+        // Simulate a crash while writing the last record
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(cacheFile, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 3);
+        }
+
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            assertEquals(1, cacheProvider.size());
+            assertEquals(Optional.of("value1"), cacheProvider.get("key1"));
+            assertEquals(Optional.empty(), cacheProvider.get("key2"));
+            cacheProvider.put("key2", "value2");
+        }
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            assertEquals(Optional.of("value2"), cacheProvider.get("key2"));
+        }
+    }
+
+    @Test
+    void corruptedRecordIsDiscarded() throws IOException {
+        File cacheFile = new File(tempDir, "cache.db");
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            cacheProvider.put("key1", "value1");
+            cacheProvider.put("key2", "value2");
+        }
+        // Simulate a record whose value was only partially flushed
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(cacheFile, "rw")) {
+            randomAccessFile.seek(randomAccessFile.length() - 1);
+            randomAccessFile.write('X');
+        }
+
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            assertEquals(1, cacheProvider.size());
+            assertEquals(Optional.of("value1"), cacheProvider.get("key1"));
+            assertEquals(Optional.empty(), cacheProvider.get("key2"));
+        }
+    }
+
+    @Test
+    void entriesAreDroppedWhenTheIndexIsFull() throws IOException {
+        File cacheFile = new File(tempDir, "cache.db");
+        // 16 slots index at most 12 entries
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile, 16)) {
+            for(int i = 0; i < 20; i++)
+                cacheProvider.put("key" + i, "value" + i);
+            assertEquals(12, cacheProvider.size());
+            assertEquals(8, cacheProvider.getDroppedEntries());
+            assertEquals(Optional.of("value11"), cacheProvider.get("key11"));
+            assertEquals(Optional.empty(), cacheProvider.get("key12"));
+        }
+        // The records of the log which do not fit in a smaller index are not loaded
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile, 8)) {
+            assertEquals(6, cacheProvider.size());
+            assertEquals(6, cacheProvider.getDroppedEntries());
+        }
+        try (LocalPsiCacheProvider cacheProvider = new LocalPsiCacheProvider(cacheFile)) {
+            assertEquals(12, cacheProvider.size());
+            assertEquals(0, cacheProvider.getDroppedEntries());
+        }
+    }
+
+    @Test
+    void cacheFileCannotBeSharedOrInvalid() throws IOException {
+        File cacheFile = new File(tempDir, "cache.db");
+        try (LocalPsiCacheProvider ignored = new LocalPsiCacheProvider(cacheFile)) {
+            assertThrows(IOException.class, () -> new LocalPsiCacheProvider(cacheFile));
+        }
+
+        File invalidFile = new File(tempDir, "invalid.db");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(invalidFile, "rw")) {
+            randomAccessFile.writeBytes("not a cache file");
+        }
+        assertThrows(IOException.class, () -> new LocalPsiCacheProvider(invalidFile));
+
+        // A file written with the previous format, whose records have no checksum
+        File previousFormatFile = new File(tempDir, "previous.db");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(previousFormatFile, "rw")) {
+            randomAccessFile.writeInt(0x50534943);
+            randomAccessFile.writeInt(1);
+        }
+        assertThrows(IOException.class, () -> new LocalPsiCacheProvider(previousFormatFile));
+    }
+}
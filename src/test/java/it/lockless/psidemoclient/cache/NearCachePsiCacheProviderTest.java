@@ -0,0 +1,69 @@
+package it.lockless.psidemoclient.cache;
+
+import com.google.common.cache.Cache;
+import org.junit.jupiter.api.Test;
+import psi.cache.PsiCacheProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearCachePsiCacheProviderTest {
+
+    private static class MapPsiCacheProvider implements PsiCacheProvider {
+        private final Map<String, String> map = new HashMap<>();
+        private int lookups;
+
+        @Override
+        public Optional<String> get(String key) {
+            lookups++;
+            return Optional.ofNullable(map.get(key));
+        }
+
+        @Override
+        public void put(String key, String value) {
+            map.put(key, value);
+        }
+    }
+
+    @Test
+    void hotKeysAreServedByTheNearCache() {
+        MapPsiCacheProvider remoteCacheProvider = new MapPsiCacheProvider();
+        remoteCacheProvider.put("remote", "remoteValue");
+        Cache<String, String> nearCache = NearCachePsiCacheProvider.newNearCache(1 << 20, 0);
+        NearCachePsiCacheProvider cacheProvider = new NearCachePsiCacheProvider(nearCache, remoteCacheProvider);
+
+        assertEquals(Optional.empty(), cacheProvider.get("missing"));
+        assertEquals(Optional.of("remoteValue"), cacheProvider.get("remote"));
+        assertEquals(Optional.of("remoteValue"), cacheProvider.get("remote"));
+        cacheProvider.put("written", "writtenValue");
+        assertEquals(Optional.of("writtenValue"), cacheProvider.get("written"));
+        assertEquals("writtenValue", remoteCacheProvider.map.get("written"));
+
+        assertEquals(2, remoteCacheProvider.lookups);
+        assertEquals(2, cacheProvider.getNearCacheHit());
+        assertEquals(2, cacheProvider.getNearCacheMiss());
+        assertEquals(1, cacheProvider.getRemoteCacheHit());
+        assertEquals(1, cacheProvider.getRemoteCacheMiss());
+
+        // A new provider sharing the near cache does not reach the remote cache for hot keys
+        NearCachePsiCacheProvider nextCacheProvider = new NearCachePsiCacheProvider(nearCache, remoteCacheProvider);
+        assertEquals(Optional.of("remoteValue"), nextCacheProvider.get("remote"));
+        assertEquals(1, nextCacheProvider.getNearCacheHit());
+        assertEquals(2, remoteCacheProvider.lookups);
+    }
+
+    @Test
+    void nearCacheIsBoundedBySize() {
+        MapPsiCacheProvider remoteCacheProvider = new MapPsiCacheProvider();
+        Cache<String, String> nearCache = NearCachePsiCacheProvider.newNearCache(64 * 1024, 0);
+        NearCachePsiCacheProvider cacheProvider = new NearCachePsiCacheProvider(nearCache, remoteCacheProvider);
+        for(int i = 0; i < 10_000; i++)
+            cacheProvider.put("key" + i, "value" + i);
+        assertTrue(nearCache.size() < 1000);
+        assertEquals(10_000, remoteCacheProvider.map.size());
+    }
+}
@@ -0,0 +1,40 @@
+package it.lockless.psidemoclient.cache;
+
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.HostAndPort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisCacheStatisticsTest {
+
+    @Test
+    void namespaceOfCompactKeys() {
+        CompactCacheCodec cacheCodec = new CompactCacheCodec(CompactCacheCodec.namespace("ECBS", 256, null));
+        assertEquals("psi:ECBS:256:", RedisCacheStatistics.namespaceOf(cacheCodec.encodeKey("a key")));
+
+        CompactCacheCodec keyCacheCodec = new CompactCacheCodec(CompactCacheCodec.namespace("DH", 2048, "key".getBytes(StandardCharsets.UTF_8)));
+        String namespace = RedisCacheStatistics.namespaceOf(keyCacheCodec.encodeKey("a key"));
+        assertEquals(CompactCacheCodec.namespace("DH", 2048, "key".getBytes(StandardCharsets.UTF_8)), namespace);
+    }
+
+    @Test
+    void namespaceOfPlainKeys() {
+        assertEquals(RedisCacheStatistics.PLAIN_NAMESPACE, RedisCacheStatistics.namespaceOf(CacheCodec.PLAIN.encodeKey("short")));
+        assertEquals(RedisCacheStatistics.PLAIN_NAMESPACE, RedisCacheStatistics.namespaceOf(CacheCodec.PLAIN.encodeKey("a plain key which is quite long")));
+        assertEquals(RedisCacheStatistics.PLAIN_NAMESPACE, RedisCacheStatistics.namespaceOf(CacheCodec.PLAIN.encodeKey("psi:BS:2048:plain")));
+    }
+
+    @Test
+    void parseClusterMasters() {
+        String clusterNodes = "07c37dfeb235213a872192d90877d0cd55635b91 127.0.0.1:30004@31004 slave e7d1eecce10fd6bb5eb35b9f99a514335d9ba9ca 0 1426238317239 4 connected\n"
+                + "67ed2db8d677e59ec4a4cefb06858cf2a1a89fa1 127.0.0.1:30002@31002 master - 0 1426238316232 2 connected 5461-10922\n"
+                + "292f8b365bb7edb5e285caf0b7e6ddc7265d2f4f 127.0.0.1:30003@31003,redis-3 master - 0 1426238318243 3 connected 10923-16383\n"
+                + "6ec23923021cf3ffec47632106199cb7f496ce01 127.0.0.1:30005@31005 master,fail - 1426238316232 0 5 disconnected\n"
+                + "e7d1eecce10fd6bb5eb35b9f99a514335d9ba9ca :30001@31001 myself,master - 0 0 1 connected 0-5460\n";
+        assertEquals(Arrays.asList(new HostAndPort("127.0.0.1", 30002), new HostAndPort("127.0.0.1", 30003), new HostAndPort("seed", 30001)),
+                RedisCacheStatistics.parseClusterMasters(clusterNodes, "seed"));
+    }
+}
@@ -0,0 +1,41 @@
+package it.lockless.psidemoclient.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.params.SetParams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisPsiCacheProviderTest {
+
+    @Mock
+    private JedisPool jedisPool;
+
+    @Mock
+    private Jedis jedis;
+
+    @Test
+    void closeClosesThePool() {
+        when(jedisPool.getResource()).thenReturn(jedis);
+        when(jedis.get(any(byte[].class))).thenReturn("value".getBytes(StandardCharsets.UTF_8));
+        RedisPsiCacheProvider cacheProvider = new RedisPsiCacheProvider(jedisPool, CacheCodec.PLAIN, 0);
+        cacheProvider.put("key", "value");
+        assertEquals(Optional.of("value"), cacheProvider.get("key"));
+        verify(jedis).set(eq("key".getBytes(StandardCharsets.UTF_8)), eq("value".getBytes(StandardCharsets.UTF_8)), any(SetParams.class));
+
+        cacheProvider.close();
+        verify(jedisPool).close();
+    }
+}
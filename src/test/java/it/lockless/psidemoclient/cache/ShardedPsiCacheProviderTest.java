@@ -0,0 +1,88 @@
+package it.lockless.psidemoclient.cache;
+
+import org.junit.jupiter.api.Test;
+import psi.cache.PsiCacheProvider;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedPsiCacheProviderTest {
+
+    private static final int KEYS = 100_000;
+
+    private static class MapPsiCacheProvider implements PsiCacheProvider {
+        private final Map<String, String> map = new HashMap<>();
+
+        @Override
+        public Optional<String> get(String key) {
+            return Optional.ofNullable(map.get(key));
+        }
+
+        @Override
+        public void put(String key, String value) {
+            map.putIfAbsent(key, value);
+        }
+    }
+
+    private static Map<String, PsiCacheProvider> shards(String... names) {
+        Map<String, PsiCacheProvider> shards = new LinkedHashMap<>();
+        for(String name : names)
+            shards.put(name, new MapPsiCacheProvider());
+        return shards;
+    }
+
+    @Test
+    void keysAreEvenlyDistributed() {
+        Map<String, PsiCacheProvider> shards = shards("redis1:6379", "redis2:6379", "redis3:6379", "redis4:6379");
+        ShardedPsiCacheProvider cacheProvider = new ShardedPsiCacheProvider(shards);
+        for(int i = 0; i < KEYS; i++)
+            cacheProvider.put("key" + i, "value" + i);
+        for(int i = 0; i < KEYS; i++)
+            assertEquals(Optional.of("value" + i), cacheProvider.get("key" + i));
+
+        for(PsiCacheProvider shard : shards.values()) {
+            int size = ((MapPsiCacheProvider) shard).map.size();
+            assertTrue(size > KEYS / 4 * 0.8 && size < KEYS / 4 * 1.2, "Unbalanced shard with " + size + " keys");
+        }
+    }
+
+    @Test
+    void placementDoesNotDependOnShardOrder() {
+        Map<String, PsiCacheProvider> shards = shards("redis1:6379", "redis2:6379", "redis3:6379");
+        Map<String, PsiCacheProvider> reversedShards = new LinkedHashMap<>();
+        reversedShards.put("redis3:6379", shards.get("redis3:6379"));
+        reversedShards.put("redis2:6379", shards.get("redis2:6379"));
+        reversedShards.put("redis1:6379", shards.get("redis1:6379"));
+
+        ShardedPsiCacheProvider cacheProvider = new ShardedPsiCacheProvider(shards);
+        ShardedPsiCacheProvider reversedCacheProvider = new ShardedPsiCacheProvider(reversedShards);
+        for(int i = 0; i < 1000; i++)
+            assertSame(cacheProvider.shardOf("key" + i), reversedCacheProvider.shardOf("key" + i));
+    }
+
+    @Test
+    void addingShardMovesFewKeys() {
+        Map<String, PsiCacheProvider> shards = shards("redis1:6379", "redis2:6379", "redis3:6379", "redis4:6379");
+        ShardedPsiCacheProvider cacheProvider = new ShardedPsiCacheProvider(shards);
+        Map<String, PsiCacheProvider> extendedShards = new LinkedHashMap<>(shards);
+        extendedShards.put("redis5:6379", new MapPsiCacheProvider());
+        ShardedPsiCacheProvider extendedCacheProvider = new ShardedPsiCacheProvider(extendedShards);
+
+        int moved = 0;
+        for(int i = 0; i < KEYS; i++) {
+            PsiCacheProvider shard = extendedCacheProvider.shardOf("key" + i);
+            if(shard != cacheProvider.shardOf("key" + i)) {
+                // Keys only move towards the new shard
+                assertSame(extendedShards.get("redis5:6379"), shard);
+                moved++;
+            }
+        }
+        assertTrue(moved > KEYS / 5 * 0.8 && moved < KEYS / 5 * 1.2, moved + " keys moved");
+    }
+}
@@ -0,0 +1,111 @@
+package it.lockless.psidemoclient.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.lockless.psidemoclient.client.HttpTransportFactory.HttpTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpTransportFactoryTest {
+
+    private static final String BODY = "{\"value\":\"psi\"}";
+
+    private HttpServer httpServer;
+
+    // Accept-Encoding header (or null) and client port of each request received by the server
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", this::handle);
+        httpServer.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        httpServer.stop(0);
+    }
+
+    @Test
+    void pooledReusesConnectionsAndRequestsCompression() {
+        RestTemplate restTemplate = new RestTemplate(HttpTransportFactory.create(HttpTransport.POOLED, 4, true));
+        for(int i = 0; i < 5; i++)
+            assertEquals(BODY, restTemplate.getForObject(url(), String.class));
+
+        assertEquals(5, acceptEncodings.size());
+        acceptEncodings.forEach(acceptEncoding -> assertTrue(acceptEncoding != null && acceptEncoding.contains("gzip")));
+        // Sequential requests are sent on the same keep-alive connection
+        assertEquals(1, new HashSet<>(clientPorts).size());
+    }
+
+    @Test
+    void pooledWithoutCompression() {
+        RestTemplate restTemplate = new RestTemplate(HttpTransportFactory.create(HttpTransport.POOLED, 4, false));
+        for(int i = 0; i < 3; i++)
+            assertEquals(BODY, restTemplate.getForObject(url(), String.class));
+
+        assertEquals(3, acceptEncodings.size());
+        acceptEncodings.forEach(acceptEncoding -> assertFalse(acceptEncoding != null && acceptEncoding.contains("gzip")));
+        assertEquals(1, new HashSet<>(clientPorts).size());
+    }
+
+    @Test
+    void simpleIgnoresCompression() {
+        RestTemplate restTemplate = new RestTemplate(HttpTransportFactory.create(HttpTransport.SIMPLE, 4, true));
+        for(int i = 0; i < 3; i++)
+            assertEquals(BODY, restTemplate.getForObject(url(), String.class));
+
+        assertEquals(3, acceptEncodings.size());
+        acceptEncodings.forEach(acceptEncoding -> assertNull(acceptEncoding));
+    }
+
+    private String url() {
+        return "http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort() + "/psi";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        acceptEncodings.add(acceptEncoding);
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            while(requestBody.read() != -1);
+        }
+
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        // The response is compressed only if requested, such that a missing decompression fails the assertions
+        if(acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+                gzipOutputStream.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package it.lockless.psidemoclient.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PageSizeControllerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void fixedPageSize() {
+        PageSizeController pageSizeController = PageSizeController.fixed(100, 3);
+        assertEquals(1, pageSizeController.next()[0]);
+        pageSizeController.onPageDownloaded(100, FAST, 0);
+        assertEquals(2, pageSizeController.next()[0]);
+        assertFalse(pageSizeController.hasNext());
+        assertEquals(3, pageSizeController.getRequestedPages());
+        assertEquals(100, pageSizeController.getLargestPageSize());
+    }
+
+    @Test
+    void adaptivePageSizeCoversAllEntries() {
+        long totalEntries = 100_000;
+        PageSizeController pageSizeController = new PageSizeController(10, 5, 640, totalEntries);
+        long expectedOffset = 10;
+        int requests = 0;
+        while(pageSizeController.hasNext()) {
+            int[] pageRequest = pageSizeController.next();
+            // Each request starts exactly where the previous one ended
+            assertEquals(expectedOffset, (long) pageRequest[0] * pageRequest[1]);
+            expectedOffset += pageRequest[1];
+            // Slow down in the middle of the download
+            boolean slow = requests >= 20 && requests < 40;
+            pageSizeController.onPageDownloaded(pageRequest[1], slow ? SLOW : FAST, 0);
+            requests++;
+        }
+        assertEquals(640, pageSizeController.getLargestPageSize());
+        assertEquals(5, pageSizeController.getSmallestPageSize());
+        assertEquals(true, expectedOffset >= totalEntries);
+    }
+
+    @Test
+    void oddPageSizeShrinks() {
+        PageSizeController pageSizeController = new PageSizeController(1001, 1, 4000, 100_000);
+        pageSizeController.onPageDownloaded(1001, SLOW, 0);
+        // The size is not reported before a page of that size is requested
+        assertEquals(1001, pageSizeController.getSmallestPageSize());
+        // 143 is the largest divisor of the offset 1001 = 7 * 11 * 13 which is at most half of the size
+        int[] pageRequest = pageSizeController.next();
+        assertEquals(7, pageRequest[0]);
+        assertEquals(143, pageRequest[1]);
+        assertEquals(143, pageSizeController.getSmallestPageSize());
+
+        // The next request starts at the offset 1144, which 286 divides
+        pageSizeController.onPageDownloaded(143, FAST, 0);
+        pageRequest = pageSizeController.next();
+        assertEquals(4, pageRequest[0]);
+        assertEquals(286, pageRequest[1]);
+        assertEquals(143, pageSizeController.getSmallestPageSize());
+        assertEquals(1001, pageSizeController.getLargestPageSize());
+    }
+
+    @Test
+    void unboundedPageSize() {
+        PageSizeController pageSizeController = PageSizeController.unbounded(100);
+        for(int page = 1; page < 5; page++)
+            assertEquals(page, pageSizeController.next()[0]);
+        assertEquals(5, pageSizeController.getRequestedPages());
+    }
+}
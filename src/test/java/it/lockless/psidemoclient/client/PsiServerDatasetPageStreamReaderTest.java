@@ -0,0 +1,100 @@
+package it.lockless.psidemoclient.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import it.lockless.psidemoclient.dto.PsiServerDatasetPageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PsiServerDatasetPageStreamReaderTest {
+
+    @Test
+    void readPageInBatches() throws IOException {
+        Set<String> content = new HashSet<>();
+        for(int i = 0; i < 25; i++)
+            content.add("ENCRYPTED-" + i);
+        PsiServerDatasetPageDTO page = new PsiServerDatasetPageDTO();
+        page.setPage(3);
+        page.setSize(25);
+        page.setEntries(25);
+        page.setLast(false);
+        page.setTotalPages(10);
+        page.setTotalEntries(250);
+        page.setContent(content);
+        byte[] body = new ObjectMapper().writeValueAsBytes(page);
+
+        List<Set<String>> batches = new LinkedList<>();
+        PsiServerDatasetPageDTO metadata = new PsiServerDatasetPageStreamReader(new JsonFactory(), 10)
+                .read(new ByteArrayInputStream(body), batches::add);
+
+        assertEquals(3, batches.size());
+        Set<String> readContent = new HashSet<>();
+        for(Set<String> batch : batches) {
+            assertTrue(batch.size() <= 10);
+            readContent.addAll(batch);
+        }
+        assertEquals(content, readContent);
+        assertNull(metadata.getContent());
+        assertEquals(3, metadata.getPage());
+        assertEquals(25, metadata.getSize());
+        assertEquals(25, metadata.getEntries());
+        assertEquals(false, metadata.getLast());
+        assertEquals(10, metadata.getTotalPages());
+        assertEquals(250, metadata.getTotalEntries());
+    }
+
+    @Test
+    void readSmilePage() throws IOException {
+        Set<String> content = new HashSet<>();
+        for(int i = 0; i < 5; i++)
+            content.add("ENCRYPTED-" + i);
+        PsiServerDatasetPageDTO page = new PsiServerDatasetPageDTO();
+        page.setPage(0);
+        page.setLast(true);
+        page.setTotalEntries(5);
+        page.setContent(content);
+        byte[] body = new ObjectMapper(new SmileFactory()).writeValueAsBytes(page);
+
+        Set<String> readContent = new HashSet<>();
+        PsiServerDatasetPageDTO metadata = new PsiServerDatasetPageStreamReader(WireFormat.SMILE.getJsonFactory(), 2)
+                .read(new ByteArrayInputStream(body), readContent::addAll);
+
+        assertEquals(content, readContent);
+        assertEquals(true, metadata.getLast());
+        assertEquals(5, metadata.getTotalEntries());
+        assertEquals(WireFormat.SMILE, WireFormat.fromContentType(WireFormat.SMILE.getMediaType()));
+    }
+
+    @Test
+    void readPageWithUnknownAndNullFields() throws IOException {
+        String body = "{\"content\":[\"A\",\"B\"],\"unknown\":{\"nested\":[1,2]},\"totalEntries\":null,\"last\":true}";
+        List<Set<String>> batches = new LinkedList<>();
+        PsiServerDatasetPageDTO metadata = new PsiServerDatasetPageStreamReader(new JsonFactory(), 10)
+                .read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), batches::add);
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(true, metadata.getLast());
+        assertNull(metadata.getTotalEntries());
+    }
+
+    @Test
+    void readInvalidContent() {
+        String body = "{\"content\":[1,2]}";
+        PsiServerDatasetPageStreamReader streamReader = new PsiServerDatasetPageStreamReader(new JsonFactory(), 10);
+        assertThrows(IOException.class, () -> streamReader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), batch -> {}));
+    }
+}
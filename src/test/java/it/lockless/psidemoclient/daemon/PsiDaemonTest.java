@@ -0,0 +1,122 @@
+package it.lockless.psidemoclient.daemon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PsiDaemonTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private PsiDaemon psiDaemon;
+
+    @AfterEach
+    void stop() {
+        if(psiDaemon != null)
+            psiDaemon.stop();
+    }
+
+    private void start(int concurrency, int queueSize, Function<List<String>, Object> jobRunner) throws IOException {
+        psiDaemon = new PsiDaemon(new InetSocketAddress("127.0.0.1", 0), concurrency, queueSize, jobRunner);
+        psiDaemon.start();
+    }
+
+    private static class Response {
+        private final int status;
+        private final JsonNode body;
+
+        private Response(int status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private Response call(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + psiDaemon.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if(body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, OBJECT_MAPPER.readTree(inputStream));
+        }
+    }
+
+    @Test
+    void computeReturnsJobResult() throws IOException {
+        start(2, 2, args -> Collections.singletonMap("args", args));
+        Response response = call("POST", "/compute", "{\"args\": [\"-i\", \"dataset.txt\"]}");
+        assertEquals(200, response.status);
+        assertEquals("dataset.txt", response.body.get("args").get(1).asText());
+
+        Response health = call("GET", "/health", null);
+        assertEquals(200, health.status);
+        assertEquals(1, health.body.get("completedJobs").asLong());
+    }
+
+    @Test
+    void jobErrors() throws IOException {
+        start(1, 1, args -> {
+            if(args.isEmpty())
+                throw new CommandLine.ParameterException(new CommandLine(CommandLine.Model.CommandSpec.create()), "Missing arguments");
+            throw new IllegalStateException("Job failed");
+        });
+        Response invalidArgs = call("POST", "/compute", "{\"args\": []}");
+        assertEquals(400, invalidArgs.status);
+        assertEquals("Missing arguments", invalidArgs.body.get("error").asText());
+        assertEquals(500, call("POST", "/compute", "{\"args\": [\"-i\", \"dataset.txt\"]}").status);
+        assertEquals(400, call("POST", "/compute", "not json").status);
+        assertEquals(405, call("GET", "/compute", null).status);
+    }
+
+    @Test
+    void fullQueueRejectsJobs() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        start(1, 0, args -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyMap();
+        });
+        CompletableFuture<Response> firstJob = CompletableFuture.supplyAsync(() -> {
+            try {
+                return call("POST", "/compute", "{\"args\": []}");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        assertEquals(503, call("POST", "/compute", "{\"args\": []}").status);
+        assertEquals(1, call("GET", "/health", null).body.get("runningJobs").asInt());
+
+        release.countDown();
+        assertEquals(200, firstJob.get(10, TimeUnit.SECONDS).status);
+    }
+}
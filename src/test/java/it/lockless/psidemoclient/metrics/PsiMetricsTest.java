@@ -0,0 +1,86 @@
+package it.lockless.psidemoclient.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PsiMetricsTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    // 1..100 ms
+    private static PsiMetrics recordLatencies() {
+        PsiMetrics psiMetrics = new PsiMetrics();
+        for(int i = 1; i <= 100; i++)
+            psiMetrics.record(PsiMetrics.CACHE_GET, i * MILLIS);
+        psiMetrics.increment(PsiMetrics.HTTP_BYTES_SENT, 1000);
+        psiMetrics.increment(PsiMetrics.HTTP_BYTES_SENT, 24);
+        return psiMetrics;
+    }
+
+    @Test
+    void jsonExport() throws IOException {
+        JsonNode metrics = new ObjectMapper().readTree(recordLatencies().toJson());
+        JsonNode cacheGet = metrics.get("timers").get(PsiMetrics.CACHE_GET);
+        assertEquals(100, cacheGet.get("count").asLong());
+        // HdrHistogram keeps 3 significant digits
+        assertEquals(5.05, cacheGet.get("sumSeconds").asDouble(), 0.01);
+        assertEquals(0.001, cacheGet.get("minSeconds").asDouble(), 0.00001);
+        assertEquals(0.1, cacheGet.get("maxSeconds").asDouble(), 0.0001);
+        assertEquals(0.05, cacheGet.get("p50Seconds").asDouble(), 0.0001);
+        assertEquals(0.099, cacheGet.get("p99Seconds").asDouble(), 0.0001);
+        assertEquals(0.1, cacheGet.get("p999Seconds").asDouble(), 0.0001);
+        assertEquals(1024, metrics.get("counters").get(PsiMetrics.HTTP_BYTES_SENT).asLong());
+    }
+
+    @Test
+    void prometheusExport() {
+        List<String> lines = Arrays.asList(recordLatencies().toPrometheus().split("\n"));
+        assertTrue(lines.contains("# TYPE psi_client_duration_seconds summary"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("psi_client_duration_seconds{operation=\"cache_get\",quantile=\"0.5\"} 0.05")));
+        assertTrue(lines.contains("psi_client_duration_seconds{operation=\"cache_get\",quantile=\"0.999\"} 0.100007935"));
+        assertTrue(lines.contains("psi_client_duration_seconds_count{operation=\"cache_get\"} 100"));
+        assertTrue(lines.contains("# TYPE psi_client_http_bytes_sent_total counter"));
+        assertTrue(lines.contains("psi_client_http_bytes_sent_total 1024"));
+    }
+
+    @Test
+    void timeRecordsFailures() {
+        PsiMetrics psiMetrics = new PsiMetrics();
+        assertThrows(IllegalStateException.class, () -> psiMetrics.time(PsiMetrics.COMPUTE_PSI, () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, psiMetrics.getCount(PsiMetrics.COMPUTE_PSI));
+        assertEquals(0, psiMetrics.getCount(PsiMetrics.RESULT_WRITE));
+        assertEquals(0, psiMetrics.getCounter(PsiMetrics.HTTP_BYTES_RECEIVED));
+    }
+
+    @Test
+    void concurrentUpdates() throws InterruptedException {
+        PsiMetrics psiMetrics = new PsiMetrics();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for(int thread = 0; thread < 4; thread++) {
+            executorService.submit(() -> {
+                for(int i = 0; i < 10_000; i++) {
+                    psiMetrics.record(PsiMetrics.CACHE_PUT, i);
+                    psiMetrics.increment(PsiMetrics.CACHE_MISS, 1);
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(40_000, psiMetrics.getCount(PsiMetrics.CACHE_PUT));
+        assertEquals(40_000, psiMetrics.getCounter(PsiMetrics.CACHE_MISS));
+    }
+}
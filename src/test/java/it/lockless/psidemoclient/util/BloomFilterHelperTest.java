@@ -0,0 +1,43 @@
+package it.lockless.psidemoclient.util;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+class BloomFilterHelperTest {
+
+    @Test
+    void retainMightContainModifiesTheInputSet() {
+        BloomFilter<CharSequence> bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), 100, 0.0001);
+        for(int i = 0; i < 10; i++)
+            bloomFilter.put("COMMON-" + i);
+
+        Set<String> clientDataset = new HashSet<>();
+        for(int i = 0; i < 10; i++) {
+            clientDataset.add("COMMON-" + i);
+            clientDataset.add("CLIENT-" + i);
+        }
+        BloomFilterHelper.retainMightContain(clientDataset, bloomFilter);
+
+        // With this false positive probability, the entries that are not in the Bloom Filter are all removed
+        assertEquals(10, clientDataset.size());
+        for(int i = 0; i < 10; i++)
+            assertTrue(clientDataset.contains("COMMON-" + i));
+    }
+
+    @Test
+    void retainMightContainWithPredicate() {
+        Set<String> clientDataset = new HashSet<>(Arrays.asList("A", "B", "C"));
+        BloomFilterHelper.retainMightContain(clientDataset, "B"::equals);
+        assertEquals(new HashSet<>(Arrays.asList("B")), clientDataset);
+    }
+}
@@ -0,0 +1,71 @@
+package it.lockless.psidemoclient.util;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import it.lockless.psidemoclient.dto.BloomFilterDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+class BloomFilterStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static BloomFilterDTO bloomFilterDTO(Instant creationDate, String... entries) throws IOException {
+        BloomFilter<CharSequence> bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), 100, 0.000001);
+        for(String entry : entries)
+            bloomFilter.put(entry);
+        ByteArrayOutputStream serializedBloomFilter = new ByteArrayOutputStream();
+        bloomFilter.writeTo(serializedBloomFilter);
+        BloomFilterDTO bloomFilterDTO = new BloomFilterDTO();
+        bloomFilterDTO.setBloomFilterCreationDate(creationDate);
+        bloomFilterDTO.setSerializedBloomFilter(serializedBloomFilter.toByteArray());
+        return bloomFilterDTO;
+    }
+
+    @Test
+    void saveAndLoad() throws IOException {
+        File storeFile = tempDir.resolve("bloom-filter.bin").toFile();
+        BloomFilterStore bloomFilterStore = new BloomFilterStore(storeFile, "https://server.com");
+        assertNull(bloomFilterStore.load());
+
+        Instant creationDate = Instant.parse("2022-01-10T10:15:30.123456789Z");
+        bloomFilterStore.save(bloomFilterDTO(creationDate, "A", "B"));
+        bloomFilterStore.save(bloomFilterDTO(creationDate.plusSeconds(60), "C"));
+
+        BloomFilterStore.StoredBloomFilter loaded = new BloomFilterStore(storeFile, "https://server.com").load();
+        assertEquals(creationDate.plusSeconds(60), loaded.getCreationDate());
+        assertTrue(loaded.getBloomFilter().mightContain("C"));
+        assertFalse(loaded.getBloomFilter().mightContain("A"));
+        // No temporary file is left
+        assertEquals(1, tempDir.toFile().list().length);
+    }
+
+    @Test
+    void bloomFilterOfAnotherServerIsIgnored() throws IOException {
+        File storeFile = tempDir.resolve("bloom-filter.bin").toFile();
+        new BloomFilterStore(storeFile, "https://server.com").save(bloomFilterDTO(Instant.now(), "A"));
+        assertNull(new BloomFilterStore(storeFile, "https://other-server.com").load());
+    }
+
+    @Test
+    void invalidFileIsIgnored() throws IOException {
+        File storeFile = tempDir.resolve("bloom-filter.bin").toFile();
+        Files.write(storeFile.toPath(), "not a bloom filter".getBytes(StandardCharsets.UTF_8));
+        assertNull(new BloomFilterStore(storeFile, "https://server.com").load());
+    }
+}
@@ -0,0 +1,61 @@
+package it.lockless.psidemoclient.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IoExecutorsTest {
+
+    private static boolean isJdk21OrLater() {
+        String specificationVersion = System.getProperty("java.specification.version");
+        return !specificationVersion.startsWith("1.") && Integer.parseInt(specificationVersion) >= 21;
+    }
+
+    @Test
+    void virtualThreadsAvailability() {
+        assertEquals(isJdk21OrLater(), IoExecutors.isVirtualThreadsAvailable());
+    }
+
+    @Test
+    void platformThreads() throws InterruptedException, ExecutionException {
+        ExecutorService executorService = IoExecutors.newIoExecutor("psi-test-", 2, false);
+        try {
+            Thread thread = executorService.submit(Thread::currentThread).get();
+            assertTrue(thread.getName().startsWith("psi-test-"));
+            assertTrue(thread.isDaemon());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void blockedTasks() throws InterruptedException, ExecutionException {
+        // With virtual threads every task runs at the same time, otherwise at most maxThreads of them
+        int tasks = 64;
+        ExecutorService executorService = IoExecutors.newIoExecutor("psi-test-", tasks, true);
+        try {
+            CountDownLatch started = new CountDownLatch(tasks);
+            List<Future<String>> futures = new ArrayList<>();
+            for(int i = 0; i < tasks; i++)
+                futures.add(executorService.submit(() -> {
+                    started.countDown();
+                    started.await();
+                    return Thread.currentThread().getName();
+                }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for(Future<String> future : futures)
+                assertTrue(future.get().startsWith("psi-test-"));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
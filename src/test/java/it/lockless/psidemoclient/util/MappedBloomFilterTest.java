@@ -0,0 +1,93 @@
+package it.lockless.psidemoclient.util;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import psi.exception.CustomRuntimeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("UnstableApiUsage")
+class MappedBloomFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] serializedBloomFilter(int entries, double fpp) throws IOException {
+        BloomFilter<CharSequence> bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), entries, fpp);
+        for(int i = 0; i < entries; i++)
+            bloomFilter.put("ENTRY-" + i);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bloomFilter.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    // Returns the number of positive answers
+    private static int assertSameAnswers(byte[] serializedBloomFilter, MappedBloomFilter mappedBloomFilter) throws IOException {
+        BloomFilter<CharSequence> bloomFilter = BloomFilter.readFrom(new ByteArrayInputStream(serializedBloomFilter), Funnels.stringFunnel(StandardCharsets.UTF_8));
+        int positives = 0;
+        for(int i = 0; i < 100_000; i++) {
+            String entry = (i % 2 == 0 ? "ENTRY-" : "OTHER-") + i / 2;
+            assertEquals(bloomFilter.mightContain(entry), mappedBloomFilter.mightContain(entry), entry);
+            if(mappedBloomFilter.mightContain(entry))
+                positives++;
+        }
+        return positives;
+    }
+
+    // All the entries put in the filter, and a few false positives
+    private static void assertPositives(int positives) {
+        assertTrue(positives >= 20_000 && positives < 21_500, positives + " positives");
+    }
+
+    @Test
+    void sameAnswersAsGuava() throws IOException {
+        byte[] serializedBloomFilter = serializedBloomFilter(20_000, 0.01);
+        assertPositives(assertSameAnswers(serializedBloomFilter, MappedBloomFilter.wrap(ByteBuffer.wrap(serializedBloomFilter))));
+    }
+
+    @Test
+    void sameAnswersAsGuavaWith32BitStrategy() throws IOException {
+        byte[] serializedBloomFilter = serializedBloomFilter(20_000, 0.01);
+        // Bloom Filters serialized by old versions of Guava use the MURMUR128_MITZ_32 strategy. Here the bits were
+        // set with the other strategy, thus only the answers are compared
+        serializedBloomFilter[0] = 0;
+        assertSameAnswers(serializedBloomFilter, MappedBloomFilter.wrap(ByteBuffer.wrap(serializedBloomFilter)));
+    }
+
+    @Test
+    void memoryMappedFile() throws IOException {
+        byte[] serializedBloomFilter = serializedBloomFilter(20_000, 0.001);
+        File file = tempDir.resolve("bloom-filter.bin").toFile();
+        Files.write(file.toPath(), serializedBloomFilter);
+        assertPositives(assertSameAnswers(serializedBloomFilter, MappedBloomFilter.map(file)));
+    }
+
+    @Test
+    void directBufferWithOffset() throws IOException {
+        byte[] serializedBloomFilter = serializedBloomFilter(20_000, 0.01);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(serializedBloomFilter.length + 10);
+        for(int i = 0; i < serializedBloomFilter.length; i++)
+            buffer.put(10 + i, serializedBloomFilter[i]);
+        assertPositives(assertSameAnswers(serializedBloomFilter, MappedBloomFilter.wrap(buffer, 10)));
+    }
+
+    @Test
+    void truncatedBloomFilter() throws IOException {
+        byte[] serializedBloomFilter = serializedBloomFilter(20_000, 0.01);
+        ByteBuffer truncated = ByteBuffer.wrap(serializedBloomFilter, 0, serializedBloomFilter.length - 1).slice();
+        assertThrows(CustomRuntimeException.class, () -> MappedBloomFilter.wrap(truncated));
+    }
+}
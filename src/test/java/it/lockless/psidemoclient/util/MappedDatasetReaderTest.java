@@ -0,0 +1,78 @@
+package it.lockless.psidemoclient.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedDatasetReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Set<String> readWithBufferedReader(File datasetFile) throws IOException {
+        Set<String> dataset = new HashSet<>();
+        try (BufferedReader br = Files.newBufferedReader(datasetFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null)
+                dataset.add(line);
+        }
+        return dataset;
+    }
+
+    @Test
+    void readSameEntriesAsBufferedReader() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for(int i = 0; i < 5000; i++) {
+            content.append("ENTRY-").append(i % 4000).append("-è");
+            // Mix the different line terminators supported by BufferedReader
+            content.append(i % 3 == 0 ? "\r\n" : (i % 3 == 1 ? "\n" : "\r"));
+        }
+        content.append("\n\nLAST-WITHOUT-NEWLINE");
+        Path datasetPath = tempDir.resolve("dataset.txt");
+        Files.write(datasetPath, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        Set<String> expected = readWithBufferedReader(datasetPath.toFile());
+        for(int threads = 1; threads <= 7; threads += 3)
+            assertEquals(expected, MappedDatasetReader.read(datasetPath.toFile(), StandardCharsets.UTF_8, threads));
+    }
+
+    @Test
+    void readWithFilter() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for(int i = 0; i < 10_000; i++)
+            content.append("ENTRY-").append(i).append('\n');
+        Path datasetPath = tempDir.resolve("dataset.txt");
+        Files.write(datasetPath, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        Set<String> expected = new HashSet<>();
+        for(int i = 0; i < 10_000; i += 7)
+            expected.add("ENTRY-" + i);
+        assertEquals(expected, MappedDatasetReader.read(datasetPath.toFile(), StandardCharsets.UTF_8, 4, expected::contains));
+    }
+
+    @Test
+    void readEmptyFile() throws IOException {
+        Path datasetPath = Files.createFile(tempDir.resolve("empty.txt"));
+        assertTrue(MappedDatasetReader.read(datasetPath.toFile(), StandardCharsets.UTF_8, 4).isEmpty());
+    }
+
+    @Test
+    void supportedCharsets() {
+        assertTrue(MappedDatasetReader.isSupportedCharset(StandardCharsets.UTF_8));
+        assertTrue(MappedDatasetReader.isSupportedCharset(StandardCharsets.ISO_8859_1));
+        assertFalse(MappedDatasetReader.isSupportedCharset(StandardCharsets.UTF_16));
+        assertFalse(MappedDatasetReader.isSupportedCharset(StandardCharsets.UTF_16LE));
+    }
+}
@@ -0,0 +1,73 @@
+package it.lockless.psidemoclient.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingDatasetReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File writeDataset(List<String> lines) throws IOException {
+        Path datasetPath = tempDir.resolve("dataset.txt");
+        Files.write(datasetPath, lines, StandardCharsets.ISO_8859_1);
+        return datasetPath.toFile();
+    }
+
+    @Test
+    void readChunksSkippingDuplicates() throws IOException {
+        File datasetFile = writeDataset(Arrays.asList("A", "B", "A", "C", "D", "B", "E", "café"));
+
+        List<Set<String>> chunks = new LinkedList<>();
+        try(StreamingDatasetReader datasetReader = new StreamingDatasetReader(datasetFile, StandardCharsets.ISO_8859_1, 2, null)) {
+            datasetReader.forEachRemaining(chunks::add);
+            assertEquals(6, datasetReader.getReturnedEntries());
+            assertEquals(2, datasetReader.getDuplicatedEntries());
+        }
+
+        assertEquals(3, chunks.size());
+        Set<String> allEntries = new HashSet<>();
+        for(Set<String> chunk : chunks) {
+            assertTrue(chunk.size() <= 2);
+            allEntries.addAll(chunk);
+        }
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C", "D", "E", "café")), allEntries);
+    }
+
+    @Test
+    void readChunksWithFilter() throws IOException {
+        File datasetFile = writeDataset(Arrays.asList("KEEP-1", "DROP-1", "KEEP-2", "KEEP-1"));
+
+        try(StreamingDatasetReader datasetReader = new StreamingDatasetReader(datasetFile, StandardCharsets.ISO_8859_1, 10, s -> s.startsWith("KEEP"))) {
+            assertEquals(new HashSet<>(Arrays.asList("KEEP-1", "KEEP-2")), datasetReader.next());
+            assertFalse(datasetReader.hasNext());
+            assertEquals(1, datasetReader.getFilteredEntries());
+            assertEquals(1, datasetReader.getDuplicatedEntries());
+        }
+    }
+
+    @Test
+    void fingerprintSetGrows() {
+        FingerprintSet fingerprintSet = new FingerprintSet(StandardCharsets.UTF_8);
+        for(int i = 0; i < 200000; i++)
+            assertTrue(fingerprintSet.add("ENTRY-" + i));
+        for(int i = 0; i < 200000; i += 1000)
+            assertFalse(fingerprintSet.add("ENTRY-" + i));
+        assertEquals(200000, fingerprintSet.size());
+    }
+}